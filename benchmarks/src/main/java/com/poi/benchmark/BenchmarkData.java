@@ -0,0 +1,113 @@
+package com.poi.benchmark;
+
+import com.poi.pojo.Brand;
+import com.poi.pojo.Goods;
+import com.poi.util.ExcelUtil;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试使用的数据，brand是2列的窄表，goods是15列的宽表
+ */
+final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    /**
+     * pojo类型
+     */
+    static Class<?> type(String pojo) {
+        switch (pojo) {
+            case "brand":
+                return Brand.class;
+            case "goods":
+                return Goods.class;
+            default:
+                throw new IllegalArgumentException("未知的pojo:" + pojo);
+        }
+    }
+
+    /**
+     * 生成指定行数的数据
+     */
+    static List<?> build(String pojo, int rows) {
+        return type(pojo) == Brand.class ? brands(rows) : goods(rows);
+    }
+
+    /**
+     * 导出用的别名Map<"属性名","列名">，由@ExcelColumn注解生成
+     */
+    static LinkedHashMap<String, String> exportAlias(String pojo) {
+        return ExcelUtil.getAlias(type(pojo));
+    }
+
+    /**
+     * 导入用的别名Map<"列名","属性名">
+     */
+    static LinkedHashMap<String, String> importAlias(String pojo) {
+        LinkedHashMap<String, String> alias = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : exportAlias(pojo).entrySet()) {
+            alias.put(entry.getValue(), entry.getKey());
+        }
+        return alias;
+    }
+
+    private static List<Brand> brands(int rows) {
+        List<Brand> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Brand brand = new Brand();
+            brand.setId(i);
+            brand.setName("品牌" + i);
+            brand.setFirstChar(String.valueOf((char) ('A' + i % 26)));
+            list.add(brand);
+        }
+        return list;
+    }
+
+    private static List<Goods> goods(int rows) {
+        List<Goods> list = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Goods goods = new Goods();
+            goods.setId((long) i);
+            goods.setSellerId("seller" + (i % 100));
+            goods.setGoodsName("商品" + i);
+            goods.setDefaultItemId((long) i * 10);
+            goods.setAuditStatus(String.valueOf(i % 4));
+            goods.setIsMarketable(String.valueOf(i % 2));
+            goods.setBrandId((long) (i % 1000));
+            goods.setCaption("副标题" + i);
+            goods.setCategory1Id((long) (i % 10));
+            goods.setCategory2Id((long) (i % 100));
+            goods.setCategory3Id((long) (i % 1000));
+            goods.setSmallPic("http://img.example.com/" + i + ".jpg");
+            goods.setPrice(new BigDecimal(i + ".99"));
+            goods.setTypeTemplateId((long) (i % 50));
+            goods.setIsEnableSpec(String.valueOf(i % 2));
+            goods.setIsDelete(i % 2 == 0);
+            list.add(goods);
+        }
+        return list;
+    }
+
+    /**
+     * 丢弃写出内容、只记录字节数的输出流，避免把写文件的时间算进去
+     */
+    static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.poi.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口，默认打开gc profiler，同时输出吞吐量和分配速率
+ * <p>
+ * 用法：java -jar target/benchmarks.jar [JMH参数]，例如只测宽表导出：
+ * java -jar target/benchmarks.jar ExportBenchmark -p pojo=goods
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,61 @@
+package com.poi.benchmark;
+
+import com.poi.util.ExcelUtil;
+import com.poi.util.ExportConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pojo2Excel的吞吐量
+ * <p>
+ * 100万行在内存模式下需要很大的堆，默认只测流式写出，可以用-p streaming=true,false加入内存模式。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ExportBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"brand", "goods"})
+    private String pojo;
+
+    @Param({"true"})
+    private boolean streaming;
+
+    private List<?> list;
+
+    private LinkedHashMap<String, String> alias;
+
+    private ExportConfig config;
+
+    @Setup
+    public void setup() {
+        list = BenchmarkData.build(pojo, rows);
+        alias = BenchmarkData.exportAlias(pojo);
+        config = streaming ? ExportConfig.streaming(ExportConfig.DEFAULT_ROW_ACCESS_WINDOW_SIZE) : ExportConfig.defaults();
+    }
+
+    @Benchmark
+    public long pojo2Excel() throws Exception {
+        BenchmarkData.CountingOutputStream out = new BenchmarkData.CountingOutputStream();
+        ExcelUtil.pojo2Excel(list, out, alias, pojo, alias.size() - 1, config);
+        return out.count;
+    }
+}
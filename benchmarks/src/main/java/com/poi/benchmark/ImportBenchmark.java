@@ -0,0 +1,77 @@
+package com.poi.benchmark;
+
+import com.poi.util.ExcelUtil;
+import com.poi.util.ExportConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * excel2Pojo的吞吐量，表格在setup中用pojo2Excel生成一次
+ * <p>
+ * streaming是SAX流式读取，dom是XSSFWorkbook整表读取。dom读取100万行需要很大的堆，
+ * 默认只测streaming，可以用-p mode=streaming,dom加入整表读取。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ImportBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"brand", "goods"})
+    private String pojo;
+
+    @Param({"streaming"})
+    private String mode;
+
+    private byte[] excel;
+
+    private Class<?> type;
+
+    private LinkedHashMap<String, String> alias;
+
+    @Setup
+    public void setup() throws Exception {
+        type = BenchmarkData.type(pojo);
+        alias = BenchmarkData.importAlias(pojo);
+        LinkedHashMap<String, String> exportAlias = BenchmarkData.exportAlias(pojo);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(BenchmarkData.build(pojo, rows), out, exportAlias, pojo, exportAlias.size() - 1,
+                ExportConfig.streaming(ExportConfig.DEFAULT_ROW_ACCESS_WINDOW_SIZE));
+        excel = out.toByteArray();
+    }
+
+    @Benchmark
+    public void excel2Pojo(Blackhole blackhole) throws Exception {
+        switch (mode) {
+            case "streaming":
+                ExcelUtil.excel2Pojo(new ByteArrayInputStream(excel), type, alias, blackhole::consume);
+                break;
+            case "dom":
+                List<?> list = ExcelUtil.excel2Pojo(new ByteArrayInputStream(excel), type, alias);
+                blackhole.consume(list);
+                break;
+            default:
+                throw new IllegalArgumentException("未知的mode:" + mode);
+        }
+    }
+}
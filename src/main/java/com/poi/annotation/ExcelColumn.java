@@ -0,0 +1,33 @@
+package com.poi.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记pojo属性对应的表格列
+ * <p>
+ * 编译时ExcelMapperProcessor为带有此注解的类生成"类名ExcelMapper"，
+ * ExcelUtil在没有传入别名时使用注解生成的列名和列顺序，并通过生成的类读写属性，不再使用反射。
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ExcelColumn {
+    /**
+     * 列名，为空时使用属性名
+     */
+    String name() default "";
+
+    /**
+     * 列的顺序，从小到大排列，相同时按属性声明顺序
+     */
+    int order() default 0;
+
+    /**
+     * 日期属性的格式，和DateTimeFormatter相同，为空时使用默认格式
+     */
+    String format() default "";
+}
@@ -1,5 +1,7 @@
 package com.poi.pojo;
 
+import com.poi.annotation.ExcelColumn;
+
 import java.io.Serializable;
 
 /**
@@ -8,7 +10,9 @@ import java.io.Serializable;
  */
 public class Brand implements Serializable {
     private int id;
+    @ExcelColumn(name = "品牌名")
     private String name;
+    @ExcelColumn(name = "首字母大写")
     private String firstChar;
 
     @Override
@@ -1,5 +1,7 @@
 package com.poi.pojo;
 
+import com.poi.annotation.ExcelColumn;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
 
@@ -16,89 +18,91 @@ public class Goods implements Serializable {
     /**
      * 商家ID
      */
-
+    @ExcelColumn(name = "卖家名")
     private String sellerId;
 
     /**
      * SPU名
      */
-
+    @ExcelColumn(name = "商品名")
     private String goodsName;
 
     /**
      * 默认SKU
      */
-
+    @ExcelColumn(name = "默认分类名")
     private Long defaultItemId;
 
     /**
      * 状态 表示商品是否被审计 0 未审核 1 已审核 2 审核未通过 3 关闭
      */
-
+    @ExcelColumn(name = "状态")
     private String auditStatus;
 
     /**
      * 是否上架
      */
-
+    @ExcelColumn(name = "是否mark")
     private String isMarketable;
 
     /**
      * 品牌
      */
-
+    @ExcelColumn(name = "品牌id")
     private Long brandId;
 
     /**
      * 副标题
      */
+    @ExcelColumn(name = "副标题")
     private String caption;
 
     /**
      * 一级类目
      */
-
+    @ExcelColumn(name = "一级菜单")
     private Long category1Id;
 
     /**
      * 二级类目
      */
-
+    @ExcelColumn(name = "二级菜单")
     private Long category2Id;
 
     /**
      * 三级类目
      */
-
+    @ExcelColumn(name = "三级菜单")
     private Long category3Id;
 
     /**
      * 小图
      */
-
+    @ExcelColumn(name = "图片链接")
     private String smallPic;
 
     /**
      * 商城价
      */
+    @ExcelColumn(name = "价格")
     private BigDecimal price;
 
     /**
      * 分类模板ID
      */
-
+    @ExcelColumn(name = "模板id")
     private Long typeTemplateId;
 
     /**
      * 是否启用规格
      */
-
+    @ExcelColumn(name = "是否启用spec")
     private String isEnableSpec;
 
     /**
      * 是否删除
      */
-
+    @ExcelColumn(name = "是否删除")
     private Boolean isDelete;
 
     private static final long serialVersionUID = 1L;
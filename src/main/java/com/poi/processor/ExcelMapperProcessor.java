@@ -0,0 +1,290 @@
+package com.poi.processor;
+
+import com.poi.annotation.ExcelColumn;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 为带有@ExcelColumn注解的类生成"类名ExcelMapper"
+ * <p>
+ * 生成的映射器和pojo在同一个包中，用switch直接调用getter和setter，
+ * 运行时不需要Introspector、反射和LambdaMetafactory。
+ * 属性没有public的getter和setter时使用字段本身，字段是private时报错。
+ */
+@SupportedAnnotationTypes("com.poi.annotation.ExcelColumn")
+public class ExcelMapperProcessor extends AbstractProcessor {
+    /**
+     * 生成类名的后缀，ExcelUtil按同样的规则查找
+     */
+    public static final String SUFFIX = "ExcelMapper";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        //按类分组，保持字段的声明顺序
+        Map<TypeElement, List<VariableElement>> columns = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(ExcelColumn.class)) {
+            if (element.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            if (element.getModifiers().contains(Modifier.STATIC)) {
+                error(element, "@ExcelColumn不能用在静态字段上");
+                continue;
+            }
+            TypeElement type = (TypeElement) element.getEnclosingElement();
+            columns.computeIfAbsent(type, k -> new ArrayList<>()).add((VariableElement) element);
+        }
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : columns.entrySet()) {
+            try {
+                generate(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                error(entry.getKey(), "生成" + SUFFIX + "失败:" + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 生成一个类的映射器
+     *
+     * @param type   pojo类
+     * @param fields 带注解的字段，按声明顺序
+     */
+    private void generate(TypeElement type, List<VariableElement> fields) throws IOException {
+        if (type.getModifiers().contains(Modifier.PRIVATE) || type.getModifiers().contains(Modifier.ABSTRACT)
+                || (type.getNestingKind().isNested() && !type.getModifiers().contains(Modifier.STATIC))) {
+            error(type, "@ExcelColumn只能用在可以直接创建的非私有类上");
+            return;
+        }
+        if (!hasNoArgConstructor(type)) {
+            error(type, "@ExcelColumn所在的类必须有非私有的无参构造器");
+            return;
+        }
+        List<Column> list = new ArrayList<>();
+        for (VariableElement field : fields) {
+            Column column = column(type, field);
+            if (column == null) {
+                return;
+            }
+            list.add(column);
+        }
+        //按order排列，相同时保持声明顺序
+        list.sort((a, b) -> Integer.compare(a.order, b.order));
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String pojo = type.getQualifiedName().toString();
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * 由ExcelMapperProcessor根据").append(type.getSimpleName()).append("的@ExcelColumn注解生成，不要修改\n */\n");
+        source.append("public final class ").append(simpleName).append(" implements com.poi.util.ExcelMapper<").append(pojo).append("> {\n");
+        appendArray(source, "String", "PROPERTIES", list, c -> literal(c.property));
+        appendArray(source, "String", "COLUMN_NAMES", list, c -> literal(c.name));
+        appendArray(source, "Class<?>", "TYPES", list, c -> c.rawType + ".class");
+        appendArray(source, "String", "FORMATS", list, c -> literal(c.format));
+
+        source.append("\n    @Override\n    public Class<").append(pojo).append("> type() {\n        return ").append(pojo).append(".class;\n    }\n");
+        source.append("\n    @Override\n    public String[] properties() {\n        return PROPERTIES.clone();\n    }\n");
+        source.append("\n    @Override\n    public String[] columnNames() {\n        return COLUMN_NAMES.clone();\n    }\n");
+        source.append("\n    @Override\n    public Class<?>[] types() {\n        return TYPES.clone();\n    }\n");
+        source.append("\n    @Override\n    public String[] formats() {\n        return FORMATS.clone();\n    }\n");
+        source.append("\n    @Override\n    public ").append(pojo).append(" newInstance() {\n        return new ").append(pojo).append("();\n    }\n");
+
+        source.append("\n    @Override\n    public Object get(").append(pojo).append(" pojo, int index) {\n        switch (index) {\n");
+        for (int i = 0; i < list.size(); i++) {
+            source.append("            case ").append(i).append(":\n                return pojo.").append(list.get(i).read).append(";\n");
+        }
+        source.append("            default:\n                throw new IndexOutOfBoundsException(String.valueOf(index));\n        }\n    }\n");
+
+        source.append("\n    @Override\n    public void set(").append(pojo).append(" pojo, int index, Object value) {\n        switch (index) {\n");
+        for (int i = 0; i < list.size(); i++) {
+            Column column = list.get(i);
+            String cast = "(" + column.castType + ") value";
+            source.append("            case ").append(i).append(":\n                pojo.")
+                    .append(column.writePrefix).append(cast).append(column.writeSuffix).append(";\n                return;\n");
+        }
+        source.append("            default:\n                throw new IndexOutOfBoundsException(String.valueOf(index));\n        }\n    }\n}\n");
+
+        String fileName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(fileName, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * 解析一个字段对应的列，找不到可用的读写方式时报错并返回null
+     */
+    private Column column(TypeElement type, VariableElement field) {
+        ExcelColumn annotation = field.getAnnotation(ExcelColumn.class);
+        String property = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        TypeMirror fieldType = field.asType();
+        boolean fieldAccessible = !field.getModifiers().contains(Modifier.PRIVATE);
+
+        String read = null;
+        String writePrefix = null;
+        String writeSuffix = null;
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type));
+        for (ExecutableElement method : methods) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String name = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty() && sameType(method.getReturnType(), fieldType)
+                    && (name.equals("get" + capitalized)
+                    || (name.equals("is" + capitalized) && fieldType.getKind() == TypeKind.BOOLEAN))) {
+                read = name + "()";
+            } else if (method.getParameters().size() == 1 && name.equals("set" + capitalized)
+                    && sameType(method.getParameters().get(0).asType(), fieldType)) {
+                writePrefix = name + "(";
+                writeSuffix = ")";
+            }
+        }
+        if (read == null && fieldAccessible) {
+            read = property;
+        }
+        if (writePrefix == null && fieldAccessible && !field.getModifiers().contains(Modifier.FINAL)) {
+            writePrefix = property + " = ";
+            writeSuffix = "";
+        }
+        if (read == null || writePrefix == null) {
+            error(field, "@ExcelColumn字段必须有public的getter和setter，或者不是private:" + property);
+            return null;
+        }
+
+        String rawType = processingEnv.getTypeUtils().erasure(fieldType).toString();
+        String castType = fieldType.getKind().isPrimitive() ? boxed(fieldType.getKind()) : rawType;
+        String name = annotation.name().isEmpty() ? property : annotation.name();
+        return new Column(property, name, annotation.order(), annotation.format(), rawType, castType, read, writePrefix, writeSuffix);
+    }
+
+    private boolean sameType(TypeMirror a, TypeMirror b) {
+        return processingEnv.getTypeUtils().isSameType(a, b);
+    }
+
+    /**
+     * 是否有非私有的无参构造器
+     */
+    private boolean hasNoArgConstructor(TypeElement type) {
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 基本类型的包装类型，setter参数先转换成包装类型再自动拆箱
+     */
+    private static String boxed(TypeKind kind) {
+        switch (kind) {
+            case BOOLEAN:
+                return "Boolean";
+            case BYTE:
+                return "Byte";
+            case SHORT:
+                return "Short";
+            case INT:
+                return "Integer";
+            case LONG:
+                return "Long";
+            case CHAR:
+                return "Character";
+            case FLOAT:
+                return "Float";
+            default:
+                return "Double";
+        }
+    }
+
+    private static void appendArray(StringBuilder source, String type, String name, List<Column> columns,
+                                    Function<Column, String> value) {
+        source.append("    private static final ").append(type).append("[] ").append(name).append(" = {");
+        for (int i = 0; i < columns.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append(value.apply(columns.get(i)));
+        }
+        source.append("};\n");
+    }
+
+    /**
+     * 转换成java字符串字面量，非ASCII字符用unicode转义，生成的文件和编码无关
+     */
+    private static String literal(String text) {
+        StringBuilder literal = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                literal.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * 一个字段对应的列
+     */
+    private static final class Column {
+        private final String property;
+        private final String name;
+        private final int order;
+        private final String format;
+        private final String rawType;
+        private final String castType;
+        private final String read;
+        private final String writePrefix;
+        private final String writeSuffix;
+
+        Column(String property, String name, int order, String format, String rawType, String castType,
+               String read, String writePrefix, String writeSuffix) {
+            this.property = property;
+            this.name = name;
+            this.order = order;
+            this.format = format;
+            this.rawType = rawType;
+            this.castType = castType;
+            this.read = read;
+            this.writePrefix = writePrefix;
+            this.writeSuffix = writeSuffix;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.poi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 在后台线程生产对象，按块经过有界队列交给调用线程
+ * <p>
+ * 队列中保存的是每一块的Future，调用线程按放入的顺序等待结果，所以块可以在线程池中并行转换，
+ * 交给consumer的顺序仍然和生产顺序一致。队列满时生产线程等待，消费慢时生产自动放慢，内存有上限。
+ * 消费出错或者调用线程被中断时通知生产线程停止，并等它退出后才返回。
+ */
+final class BatchPipeline<T> {
+    /**
+     * 生产者，把对象逐个交给sink
+     */
+    interface Producer<T> {
+        void produce(Consumer<T> sink) throws Exception;
+    }
+
+    /**
+     * 块生产者，把每一块的Future按顺序交给sink
+     */
+    interface ChunkProducer<T> {
+        void produce(Consumer<Future<List<T>>> sink) throws Exception;
+    }
+
+    /**
+     * 队列中表示生产结束的标记
+     */
+    private static final Future<List<Object>> END = CompletableFuture.completedFuture(null);
+
+    /**
+     * 生产线程等待队列空位时检查取消标记的间隔
+     */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<Future<?>> queue;
+
+    /**
+     * 调用线程不再接收时置为true
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * 生产线程抛出的异常
+     */
+    private volatile Throwable failure;
+
+    private BatchPipeline(int queueCapacity) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * 在后台线程运行producer，在调用线程上按批调用consumer，全部完成后返回
+     *
+     * @param threadName    生产线程的名字
+     * @param producer      生产者
+     * @param batchSize     每批的对象数，最后一批可能不足
+     * @param queueCapacity 队列中最多等待的批数
+     * @param consumer      接收每一批对象，每批是新的List，可以直接保存
+     * @throws Exception producer或consumer抛出的异常
+     */
+    static <T> void run(String threadName, Producer<T> producer, int batchSize, int queueCapacity, Consumer<? super List<T>> consumer) throws Exception {
+        checkBatchSize(batchSize);
+        runChunks(threadName, sink -> {
+            List<List<T>> current = new ArrayList<>(1);
+            current.add(new ArrayList<>(batchSize));
+            producer.produce(item -> {
+                List<T> batch = current.get(0);
+                batch.add(item);
+                if (batch.size() == batchSize) {
+                    sink.accept(CompletableFuture.completedFuture(batch));
+                    current.set(0, new ArrayList<>(batchSize));
+                }
+            });
+            if (!current.get(0).isEmpty()) {
+                sink.accept(CompletableFuture.completedFuture(current.get(0)));
+            }
+        }, queueCapacity, consumer);
+    }
+
+    /**
+     * 在后台线程运行producer，在调用线程上按顺序等待每一块的结果并调用consumer，全部完成后返回
+     *
+     * @param threadName    生产线程的名字
+     * @param producer      块生产者
+     * @param queueCapacity 队列中最多等待的块数，包括还在转换的块
+     * @param consumer      接收每一块对象
+     * @throws Exception producer、块的转换或consumer抛出的异常
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void runChunks(String threadName, ChunkProducer<T> producer, int queueCapacity, Consumer<? super List<T>> consumer) throws Exception {
+        BatchPipeline<T> pipeline = new BatchPipeline<>(queueCapacity);
+        Thread thread = new Thread(pipeline.producerTask(producer), threadName);
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            while (true) {
+                Future<?> chunk = pipeline.queue.take();
+                if (chunk == END) {
+                    break;
+                }
+                consumer.accept((List<T>) getResult(chunk));
+            }
+        } finally {
+            pipeline.cancelled = true;
+            //还没有转换的块不再需要
+            for (Future<?> chunk; (chunk = pipeline.queue.poll()) != null; ) {
+                chunk.cancel(false);
+            }
+            //等生产线程退出，调用方随后会清理生产者使用的资源
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    thread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        rethrow(pipeline.failure);
+    }
+
+    static void checkBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize必须大于0:" + batchSize);
+        }
+    }
+
+    private Runnable producerTask(ChunkProducer<T> producer) {
+        return () -> {
+            try {
+                producer.produce(this::handOff);
+            } catch (CancellationException e) {
+                return;
+            } catch (Throwable e) {
+                failure = e;
+            }
+            try {
+                handOff(END);
+            } catch (CancellationException e) {
+                //调用线程已经不再接收
+            }
+        };
+    }
+
+    /**
+     * 把一块放进队列，队列满时等待，调用线程取消时抛出CancellationException
+     */
+    private void handOff(Future<?> chunk) {
+        try {
+            while (!queue.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+        if (cancelled) {
+            chunk.cancel(false);
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * 等待一块的结果，转换中抛出的异常原样抛出
+     */
+    private static Object getResult(Future<?> chunk) throws Exception {
+        try {
+            return chunk.get();
+        } catch (ExecutionException e) {
+            rethrow(e.getCause());
+            throw e;
+        }
+    }
+
+    private static void rethrow(Throwable error) throws Exception {
+        if (error instanceof Exception) {
+            throw (Exception) error;
+        } else if (error != null) {
+            throw (Error) error;
+        }
+    }
+}
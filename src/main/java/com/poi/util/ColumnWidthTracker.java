@@ -0,0 +1,111 @@
+package com.poi.util;
+
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * 写入时记录每一列的最大显示宽度，全部写完后一次性设置列宽
+ * <p>
+ * 代替autoSizeColumn和逐行扫描，不需要字体计算，也不需要回头读取已经写出的行，
+ * 流式写出时同样可用。宽度以字符为单位，中日韩文字和全角字符按两个字符计算。
+ */
+final class ColumnWidthTracker {
+    /**
+     * Excel允许的最大列宽，单位是字符
+     */
+    private static final int MAX_WIDTH = 255;
+
+    /**
+     * 每列额外留出的宽度，避免文字贴边
+     */
+    private static final int PADDING = 2;
+
+    /**
+     * 每一列的最大显示宽度
+     */
+    private final int[] widths;
+
+    ColumnWidthTracker(int columns) {
+        this.widths = new int[columns];
+    }
+
+    /**
+     * 记录一个单元格的显示宽度
+     *
+     * @param column 列号
+     * @param width  显示宽度
+     */
+    void track(int column, int width) {
+        if (width > widths[column]) {
+            widths[column] = width;
+        }
+    }
+
+    /**
+     * 记录一个文本单元格的显示宽度
+     *
+     * @param column 列号
+     * @param text   文本
+     */
+    void trackText(int column, CharSequence text) {
+        track(column, displayWidth(text));
+    }
+
+    /**
+     * 记录一个整数单元格的显示宽度
+     *
+     * @param column 列号
+     * @param value  整数
+     */
+    void trackLong(int column, long value) {
+        track(column, digits(value));
+    }
+
+    /**
+     * 按记录的宽度设置列宽
+     *
+     * @param sheet 表
+     */
+    void apply(Sheet sheet) {
+        for (int column = 0; column < widths.length; column++) {
+            int width = Math.min(widths[column] + PADDING, MAX_WIDTH);
+            sheet.setColumnWidth(column, width * 256);
+        }
+    }
+
+    /**
+     * 计算文本的显示宽度，全角字符按两个字符计算
+     */
+    static int displayWidth(CharSequence text) {
+        int width = 0;
+        for (int i = 0; i < text.length(); i++) {
+            width += isFullWidth(text.charAt(i)) ? 2 : 1;
+        }
+        return width;
+    }
+
+    /**
+     * 是否是全角字符，包括中日韩文字、标点和全角符号
+     */
+    private static boolean isFullWidth(char c) {
+        return (c >= '\u1100' && c <= '\u115F')
+                || (c >= '\u2E80' && c <= '\uA4CF')
+                || (c >= '\uAC00' && c <= '\uD7A3')
+                || (c >= '\uF900' && c <= '\uFAFF')
+                || (c >= '\uFE30' && c <= '\uFE4F')
+                || (c >= '\uFF00' && c <= '\uFF60')
+                || (c >= '\uFFE0' && c <= '\uFFE6');
+    }
+
+    /**
+     * 整数的位数，负数包括负号
+     */
+    static int digits(long value) {
+        int digits = value < 0 ? 2 : 1;
+        long remaining = value < 0 ? -(value / 10) : value / 10;
+        while (remaining > 0) {
+            remaining /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
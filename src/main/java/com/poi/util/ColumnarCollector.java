@@ -0,0 +1,471 @@
+package com.poi.util;
+
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 把流式读取的行按列收集成ColumnarResult
+ * <p>
+ * 和RowPojoMapper的约定一致：第0行是表标题，第1行是列名，列名通过alias找到属性，属性类型决定列的类型。
+ * 数字单元格直接取double值，不生成文本；数组按两倍扩容，结束时截到实际行数。
+ * BigInteger属性按long保存，超出long范围的单元格和其他转换失败的单元格一样记为空值并写日志。
+ * 和对象导入一样支持ImportConfig的projection、rowOffset和rowLimit。
+ */
+final class ColumnarCollector implements RowCallback {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarCollector.class);
+
+    /**
+     * 列名所在行
+     */
+    private static final int HEAD_ROW_NUM = 1;
+
+    /**
+     * 数组的初始容量
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * 列别名,格式要求：Map<"列名","类属性名">
+     */
+    private final LinkedHashMap<String, String> alias;
+
+    /**
+     * 类的映射计划，只用来确定属性类型和日期格式
+     */
+    private final PojoMapping<?> mapping;
+
+    /**
+     * 只读取的属性，为null时读取全部属性
+     */
+    private final Set<String> projection;
+
+    /**
+     * 跳过的数据行数
+     */
+    private final long rowOffset;
+
+    /**
+     * 读到第几个数据行为止，不包括这一行
+     */
+    private final long rowEnd;
+
+    /**
+     * 每一列的收集器，没有对应属性的列为null
+     */
+    private ColumnBuilder[] builders;
+
+    /**
+     * 已经读到的数据行数，包括跳过的行
+     */
+    private long dataRows;
+
+    /**
+     * 收集的数据行数
+     */
+    private int rows;
+
+    ColumnarCollector(Class<?> clazz, LinkedHashMap<String, String> alias, ImportConfig config) {
+        this.alias = alias;
+        this.mapping = PojoMapping.of(clazz, alias.values(), config.getDatePatterns());
+        this.projection = config.getProjection();
+        this.rowOffset = config.getRowOffset();
+        this.rowEnd = (long) config.getRowOffset() + config.getRowLimit();
+    }
+
+    @Override
+    public void onRow(RawRow row) {
+        int rowNum = row.getRowNum();
+        if (rowNum < HEAD_ROW_NUM) {
+            return;
+        }
+        if (rowNum == HEAD_ROW_NUM) {
+            readHead(row);
+            return;
+        }
+        if (builders == null) {
+            throw new IllegalStateException("表格缺少列名行");
+        }
+        long index = dataRows++;
+        if (index < rowOffset || index >= rowEnd) {
+            return;
+        }
+        for (int i = 0; i < builders.length; i++) {
+            ColumnBuilder builder = builders[i];
+            if (builder != null) {
+                builder.append(row, i);
+            }
+        }
+        rows++;
+    }
+
+    @Override
+    public boolean isColumnNeeded(int rowNum, int column) {
+        if (rowNum < HEAD_ROW_NUM) {
+            return false;
+        }
+        if (rowNum == HEAD_ROW_NUM || builders == null) {
+            return true;
+        }
+        //当前行还没有计入dataRows
+        if (dataRows < rowOffset) {
+            return false;
+        }
+        return column < builders.length && builders[column] != null;
+    }
+
+    @Override
+    public boolean isDone() {
+        return dataRows >= rowEnd;
+    }
+
+    private void readHead(RawRow row) {
+        builders = new ColumnBuilder[row.getWidth()];
+        for (int i = 0; i < builders.length; i++) {
+            String cellValue = row.get(i);
+            PropertyAccessor accessor = cellValue == null ? null : mapping.getAccessor(alias.get(cellValue));
+            if (accessor != null && (projection == null || projection.contains(accessor.getName()))) {
+                builders[i] = builder(accessor);
+            }
+        }
+    }
+
+    private static ColumnBuilder builder(PropertyAccessor accessor) {
+        switch (accessor.getValueType()) {
+            case LONG:
+            case INTEGER:
+            case SHORT:
+            case BYTE:
+            case BOOLEAN:
+            case DATE:
+            case BIG_INTEGER:
+                return new LongBuilder(accessor);
+            case DOUBLE:
+            case FLOAT:
+            case BIG_DECIMAL:
+                return new DoubleBuilder(accessor);
+            default:
+                return new DictionaryBuilder(accessor);
+        }
+    }
+
+    /**
+     * 数据行数
+     */
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * 对应到属性的列数
+     */
+    int getMappedColumns() {
+        int count = 0;
+        if (builders != null) {
+            for (ColumnBuilder builder : builders) {
+                if (builder != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 生成结果，表格中同一个属性出现多次时后面的列生效，和对象导入一致
+     */
+    ColumnarResult build() {
+        LinkedHashMap<String, ColumnarResult.Column> columns = new LinkedHashMap<>();
+        if (builders != null) {
+            for (ColumnBuilder builder : builders) {
+                if (builder != null) {
+                    columns.put(builder.accessor.getName(), builder.build(rows));
+                }
+            }
+        }
+        return new ColumnarResult(rows, columns);
+    }
+
+    /**
+     * 一列的收集器
+     */
+    private abstract static class ColumnBuilder {
+        final PropertyAccessor accessor;
+
+        long[] nulls = new long[INITIAL_CAPACITY >>> 6];
+
+        int size;
+
+        ColumnBuilder(PropertyAccessor accessor) {
+            this.accessor = accessor;
+        }
+
+        /**
+         * 追加一行的值，空单元格和转换失败的单元格记为空值
+         */
+        final void append(RawRow row, int column) {
+            if (size == capacity()) {
+                grow(size * 2);
+                nulls = Arrays.copyOf(nulls, size * 2 >>> 6);
+            }
+            try {
+                if (row.isNumeric(column)) {
+                    appendNumber(row.getNumber(column));
+                } else {
+                    String text = row.get(column);
+                    if (text == null || "".equals(text)) {
+                        appendNull();
+                    } else {
+                        appendText(text);
+                    }
+                }
+            } catch (Exception e) {
+                //单个单元格转换失败不影响其他单元格
+                logger.error("第{}行属性{}转换失败:{}", row.getRowNum(), accessor.getName(), row.get(column), e);
+                appendNull();
+            }
+            size++;
+        }
+
+        final void appendNull() {
+            nulls[size >>> 6] |= 1L << size;
+            setNull();
+        }
+
+        /**
+         * 当前容量
+         */
+        abstract int capacity();
+
+        /**
+         * 把值数组扩容到capacity
+         */
+        abstract void grow(int capacity);
+
+        abstract void appendNumber(double value) throws Exception;
+
+        abstract void appendText(String text) throws Exception;
+
+        /**
+         * 在当前位置写入空值的占位
+         */
+        abstract void setNull();
+
+        abstract ColumnarResult.Column build(int rows);
+
+        final long[] trimmedNulls(int rows) {
+            return Arrays.copyOf(nulls, (rows + 63) >>> 6);
+        }
+    }
+
+    /**
+     * 整数、布尔和日期列，BigInteger超出long范围的单元格记为空值
+     */
+    private static final class LongBuilder extends ColumnBuilder {
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        LongBuilder(PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void appendNumber(double value) {
+            switch (accessor.getValueType()) {
+                case DATE:
+                    values[size] = toMillis(DateFormats.fromExcelDate(value));
+                    break;
+                case BOOLEAN:
+                    values[size] = value != 0 ? 1 : 0;
+                    break;
+                default:
+                    //(long)转换超出范围时取边界值，2^63本身也会被当成Long.MAX_VALUE
+                    if (value >= 0x1p63 || value < -0x1p63) {
+                        throw new ArithmeticException("超出long的范围:" + value);
+                    }
+                    long longValue = (long) value;
+                    if (longValue != value) {
+                        throw new NumberFormatException("不是整数:" + value);
+                    }
+                    values[size] = checkRange(longValue);
+                    break;
+            }
+        }
+
+        /**
+         * 和文本单元格一样按属性类型检查范围，超出时记为空值
+         */
+        private long checkRange(long value) {
+            long min;
+            long max;
+            switch (accessor.getValueType()) {
+                case INTEGER:
+                    min = Integer.MIN_VALUE;
+                    max = Integer.MAX_VALUE;
+                    break;
+                case SHORT:
+                    min = Short.MIN_VALUE;
+                    max = Short.MAX_VALUE;
+                    break;
+                case BYTE:
+                    min = Byte.MIN_VALUE;
+                    max = Byte.MAX_VALUE;
+                    break;
+                default:
+                    return value;
+            }
+            if (value < min || value > max) {
+                throw new NumberFormatException("超出" + accessor.getType().getSimpleName() + "的范围:" + value);
+            }
+            return value;
+        }
+
+        @Override
+        void appendText(String text) throws Exception {
+            //按属性类型解析，保留Integer等类型的范围检查
+            Object value = accessor.parse(text);
+            switch (accessor.getValueType()) {
+                case DATE:
+                    values[size] = toMillis(DateFormats.toLocalDateTime(value));
+                    break;
+                case BOOLEAN:
+                    values[size] = (Boolean) value ? 1 : 0;
+                    break;
+                case BIG_INTEGER:
+                    //超出long范围时抛出ArithmeticException，记为空值
+                    values[size] = ((BigInteger) value).longValueExact();
+                    break;
+                default:
+                    values[size] = ((Number) value).longValue();
+                    break;
+            }
+        }
+
+        @Override
+        void setNull() {
+            values[size] = 0;
+        }
+
+        @Override
+        ColumnarResult.Column build(int rows) {
+            return new ColumnarResult.LongColumn(accessor.getName(), rows, trimmedNulls(rows), Arrays.copyOf(values, rows));
+        }
+
+        private static long toMillis(LocalDateTime dateTime) {
+            return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+    }
+
+    /**
+     * 小数列
+     */
+    private static final class DoubleBuilder extends ColumnBuilder {
+        private double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleBuilder(PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        void appendNumber(double value) {
+            values[size] = value;
+        }
+
+        @Override
+        void appendText(String text) {
+            values[size] = Double.parseDouble(text.trim());
+        }
+
+        @Override
+        void setNull() {
+            values[size] = 0;
+        }
+
+        @Override
+        ColumnarResult.Column build(int rows) {
+            return new ColumnarResult.DoubleColumn(accessor.getName(), rows, trimmedNulls(rows), Arrays.copyOf(values, rows));
+        }
+    }
+
+    /**
+     * 字典编码的文本列
+     */
+    private static final class DictionaryBuilder extends ColumnBuilder {
+        private int[] codes = new int[INITIAL_CAPACITY];
+
+        private final Map<String, Integer> codeMap = new HashMap<>();
+
+        private final List<String> dictionary = new ArrayList<>();
+
+        DictionaryBuilder(PropertyAccessor accessor) {
+            super(accessor);
+        }
+
+        @Override
+        int capacity() {
+            return codes.length;
+        }
+
+        @Override
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        @Override
+        void appendNumber(double value) {
+            //数字和对象导入一样按文本处理，12.0处理成12
+            appendText(NumberToTextConverter.toText(value));
+        }
+
+        @Override
+        void appendText(String text) {
+            Integer code = codeMap.get(text);
+            if (code == null) {
+                code = dictionary.size();
+                codeMap.put(text, code);
+                dictionary.add(text);
+            }
+            codes[size] = code;
+        }
+
+        @Override
+        void setNull() {
+            codes[size] = -1;
+        }
+
+        @Override
+        ColumnarResult.Column build(int rows) {
+            return new ColumnarResult.StringColumn(accessor.getName(), rows, trimmedNulls(rows), Arrays.copyOf(codes, rows), dictionary);
+        }
+    }
+}
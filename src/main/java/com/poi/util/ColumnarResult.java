@@ -0,0 +1,270 @@
+package com.poi.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按列保存的导入结果，用于统计分析
+ * <p>
+ * 每个属性一列，不创建对象：整数、布尔和日期属性保存在long[]中，小数属性保存在double[]中，
+ * 其他属性按字典编码成int[]，相同的文本只保存一份。每列另有一个空值位图，空单元格和转换失败的单元格是空值。
+ * 一百万行的整数列只占8MB左右。
+ */
+public final class ColumnarResult {
+    /**
+     * 行数
+     */
+    private final int rowCount;
+
+    /**
+     * 按列名行中的顺序保存的列Map<"属性名",列>
+     */
+    private final Map<String, Column> columns;
+
+    ColumnarResult(int rowCount, LinkedHashMap<String, Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = Collections.unmodifiableMap(columns);
+    }
+
+    /**
+     * 数据行数
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 读到的属性名，顺序和列名行中的顺序一致
+     */
+    public Set<String> getProperties() {
+        return columns.keySet();
+    }
+
+    /**
+     * 获取属性对应的列
+     *
+     * @param property 属性名
+     * @return 表格中没有这个属性的列时返回null
+     */
+    public Column getColumn(String property) {
+        return columns.get(property);
+    }
+
+    /**
+     * 获取整数列，整数、BigInteger、布尔和日期属性保存为整数列
+     *
+     * @param property 属性名
+     * @throws IllegalArgumentException 没有这一列或者不是整数列
+     */
+    public LongColumn getLongColumn(String property) {
+        return column(property, LongColumn.class);
+    }
+
+    /**
+     * 获取小数列，double、float和BigDecimal属性保存为小数列，BigDecimal超过15位有效数字的部分会丢失
+     *
+     * @param property 属性名
+     * @throws IllegalArgumentException 没有这一列或者不是小数列
+     */
+    public DoubleColumn getDoubleColumn(String property) {
+        return column(property, DoubleColumn.class);
+    }
+
+    /**
+     * 获取字典编码的文本列
+     *
+     * @param property 属性名
+     * @throws IllegalArgumentException 没有这一列或者不是文本列
+     */
+    public StringColumn getStringColumn(String property) {
+        return column(property, StringColumn.class);
+    }
+
+    private <C extends Column> C column(String property, Class<C> type) {
+        Column column = columns.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("没有属性" + property + "对应的列");
+        }
+        if (!type.isInstance(column)) {
+            throw new IllegalArgumentException("属性" + property + "的列类型是" + column.getClass().getSimpleName());
+        }
+        return type.cast(column);
+    }
+
+    /**
+     * 一列数据，空值位图中第row位为1表示第row行是空值
+     */
+    public abstract static class Column {
+        /**
+         * 属性名
+         */
+        private final String property;
+
+        /**
+         * 行数
+         */
+        final int size;
+
+        /**
+         * 空值位图，每个long保存64行
+         */
+        private final long[] nulls;
+
+        Column(String property, int size, long[] nulls) {
+            this.property = property;
+            this.size = size;
+            this.nulls = nulls;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        /**
+         * 行数
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 某一行是否是空值
+         *
+         * @param row 数据行序号，从0开始
+         */
+        public boolean isNull(int row) {
+            checkRow(row);
+            return (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        /**
+         * 空值的行数
+         */
+        public int nullCount() {
+            int count = 0;
+            for (long word : nulls) {
+                count += Long.bitCount(word);
+            }
+            return count;
+        }
+
+        /**
+         * 空值位图的拷贝，第row行对应第row/64个long的第row%64位
+         */
+        public long[] getNullBitmap() {
+            return nulls.clone();
+        }
+
+        final void checkRow(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("行号超出范围:" + row);
+            }
+        }
+    }
+
+    /**
+     * 整数列，布尔值保存为1和0，日期保存为本地时区的毫秒时间戳
+     */
+    public static final class LongColumn extends Column {
+        private final long[] values;
+
+        LongColumn(String property, int size, long[] nulls, long[] values) {
+            super(property, size, nulls);
+            this.values = values;
+        }
+
+        /**
+         * 某一行的值，空值返回0
+         */
+        public long get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * 全部值的拷贝，空值的位置是0
+         */
+        public long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 小数列
+     */
+    public static final class DoubleColumn extends Column {
+        private final double[] values;
+
+        DoubleColumn(String property, int size, long[] nulls, double[] values) {
+            super(property, size, nulls);
+            this.values = values;
+        }
+
+        /**
+         * 某一行的值，空值返回0
+         */
+        public double get(int row) {
+            checkRow(row);
+            return values[row];
+        }
+
+        /**
+         * 全部值的拷贝，空值的位置是0
+         */
+        public double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * 字典编码的文本列，每行保存文本在字典中的编号
+     */
+    public static final class StringColumn extends Column {
+        private final int[] codes;
+
+        /**
+         * 字典，按第一次出现的顺序编号
+         */
+        private final List<String> dictionary;
+
+        StringColumn(String property, int size, long[] nulls, int[] codes, List<String> dictionary) {
+            super(property, size, nulls);
+            this.codes = codes;
+            this.dictionary = Collections.unmodifiableList(dictionary);
+        }
+
+        /**
+         * 某一行的文本，空值返回null
+         */
+        public String get(int row) {
+            int code = getCode(row);
+            return code < 0 ? null : dictionary.get(code);
+        }
+
+        /**
+         * 某一行的字典编号，空值返回-1
+         */
+        public int getCode(int row) {
+            checkRow(row);
+            return codes[row];
+        }
+
+        /**
+         * 全部编号的拷贝，空值的位置是-1
+         */
+        public int[] getCodes() {
+            return Arrays.copyOf(codes, size);
+        }
+
+        /**
+         * 字典，编号就是下标
+         */
+        public List<String> getDictionary() {
+            return dictionary;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.poi.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CsvUtil读写参数
+ * <p>
+ * 文件使用UTF-8编码，第一行是列名，字段按RFC 4180的规则加引号。
+ * 读写都通过NIO通道和bufferSize大小的直接缓冲区进行，默认逗号分隔，tsv()使用制表符分隔。
+ */
+public class CsvConfig {
+    /**
+     * 默认的缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * 字段分隔符，必须是ASCII字符
+     */
+    private char delimiter = ',';
+
+    /**
+     * 读写使用的直接缓冲区大小
+     */
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /**
+     * 写出时是否在文件开头加上UTF-8的BOM，Excel打开含中文的csv时需要，读取时总是跳过BOM
+     */
+    private boolean writeBom;
+
+    /**
+     * 日期属性的格式Map<"属性名","格式">
+     */
+    private Map<String, String> datePatterns = Collections.emptyMap();
+
+    /**
+     * 逗号分隔的默认配置
+     */
+    public static CsvConfig csv() {
+        return new CsvConfig();
+    }
+
+    /**
+     * 制表符分隔的配置
+     */
+    public static CsvConfig tsv() {
+        CsvConfig config = new CsvConfig();
+        config.setDelimiter('\t');
+        return config;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    public void setDelimiter(char delimiter) {
+        if (delimiter >= 0x80 || delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("分隔符必须是引号和换行以外的ASCII字符:" + delimiter);
+        }
+        this.delimiter = delimiter;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize < 1024) {
+            throw new IllegalArgumentException("bufferSize不能小于1024:" + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    public boolean isWriteBom() {
+        return writeBom;
+    }
+
+    public void setWriteBom(boolean writeBom) {
+        this.writeBom = writeBom;
+    }
+
+    public Map<String, String> getDatePatterns() {
+        return datePatterns;
+    }
+
+    /**
+     * 设置日期属性的格式，格式和DateTimeFormatter相同，没有指定的属性使用yyyy-MM-dd HH:mm:ss
+     *
+     * @param datePatterns Map<"属性名","格式">
+     */
+    public void setDatePatterns(Map<String, String> datePatterns) {
+        this.datePatterns = Collections.unmodifiableMap(new HashMap<>(datePatterns));
+    }
+}
@@ -0,0 +1,187 @@
+package com.poi.util;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 按RFC 4180解析UTF-8编码的csv，每解析完一行调用一次回调
+ * <p>
+ * 分隔符、引号和换行都是ASCII字符，UTF-8多字节字符的每个字节都不小于0x80，
+ * 所以直接在字节上解析，每个字段的字节只在字段结束时解码一次。
+ * 引号外的回车忽略，空行跳过，第一行开头的BOM跳过。回调不需要的字段不解码，回调读够行后停止读取。
+ */
+final class CsvParser {
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final byte delimiter;
+
+    private final RowCallback callback;
+
+    private final RawRow row = new RawRow();
+
+    /**
+     * 当前字段的字节
+     */
+    private byte[] field = new byte[256];
+
+    private int fieldLength;
+
+    /**
+     * 当前字段是否加了引号，加引号的空字段是空文本而不是空值
+     */
+    private boolean fieldQuoted;
+
+    private int column;
+
+    private int state = FIELD_START;
+
+    /**
+     * 回调是否已经读够了行
+     */
+    private boolean done;
+
+    private CsvParser(CsvConfig config, RowCallback callback) {
+        this.delimiter = (byte) config.getDelimiter();
+        this.callback = callback;
+    }
+
+    /**
+     * 解析通道中的全部数据，第0行是列名
+     *
+     * @param channel  数据来源，读完后不关闭
+     * @param config   读取参数
+     * @param callback 行回调
+     * @throws Exception 回调抛出的异常原样抛出
+     */
+    static void parse(ReadableByteChannel channel, CsvConfig config, RowCallback callback) throws Exception {
+        CsvParser parser = new CsvParser(config, callback);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(config.getBufferSize());
+        boolean bomChecked = false;
+        while (!parser.done && channel.read(buffer) >= 0) {
+            ((Buffer) buffer).flip();
+            if (!bomChecked) {
+                //不够判断BOM时留到下一次读取
+                if (buffer.remaining() < 3) {
+                    buffer.compact();
+                    continue;
+                }
+                skipBom(buffer);
+                bomChecked = true;
+            }
+            parser.consume(buffer);
+            ((Buffer) buffer).clear();
+        }
+        if (parser.done) {
+            return;
+        }
+        ((Buffer) buffer).flip();
+        if (!bomChecked) {
+            skipBom(buffer);
+        }
+        parser.consume(buffer);
+        parser.finish();
+    }
+
+    private static void skipBom(ByteBuffer buffer) {
+        int position = buffer.position();
+        if (buffer.remaining() >= 3 && buffer.get(position) == (byte) 0xEF
+                && buffer.get(position + 1) == (byte) 0xBB && buffer.get(position + 2) == (byte) 0xBF) {
+            ((Buffer) buffer).position(position + 3);
+        }
+    }
+
+    private void consume(ByteBuffer buffer) throws Exception {
+        while (!done && buffer.hasRemaining()) {
+            byte b = buffer.get();
+            switch (state) {
+                case FIELD_START:
+                    if (b == '"') {
+                        fieldQuoted = true;
+                        state = QUOTED;
+                    } else if (b == delimiter) {
+                        endField();
+                    } else if (b == '\n') {
+                        endRecord();
+                    } else if (b != '\r') {
+                        append(b);
+                        state = UNQUOTED;
+                    }
+                    break;
+                case UNQUOTED:
+                    if (b == delimiter) {
+                        endField();
+                    } else if (b == '\n') {
+                        endRecord();
+                    } else if (b != '\r') {
+                        append(b);
+                    }
+                    break;
+                case QUOTED:
+                    if (b == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    } else {
+                        append(b);
+                    }
+                    break;
+                default:
+                    if (b == '"') {
+                        //两个引号表示一个引号
+                        append(b);
+                        state = QUOTED;
+                    } else if (b == delimiter) {
+                        endField();
+                    } else if (b == '\n') {
+                        endRecord();
+                    } else if (b != '\r') {
+                        //引号后面不是分隔符时按普通字符处理
+                        append(b);
+                        state = UNQUOTED;
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private void endField() {
+        if ((fieldLength > 0 || fieldQuoted) && callback.isColumnNeeded(row.getRowNum(), column)) {
+            row.set(column, new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+        }
+        column++;
+        fieldLength = 0;
+        fieldQuoted = false;
+        state = FIELD_START;
+    }
+
+    private void endRecord() throws Exception {
+        boolean blank = column == 0 && fieldLength == 0 && !fieldQuoted;
+        endField();
+        if (!blank) {
+            callback.onRow(row);
+            row.reset(row.getRowNum() + 1);
+            done = callback.isDone();
+        }
+        column = 0;
+    }
+
+    /**
+     * 最后一行没有换行时补上行结束
+     */
+    private void finish() throws Exception {
+        if (column > 0 || fieldLength > 0 || fieldQuoted) {
+            endRecord();
+        }
+    }
+}
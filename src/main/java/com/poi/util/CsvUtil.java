@@ -0,0 +1,176 @@
+package com.poi.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * csv和tsv的读写，和ExcelUtil使用同样的别名约定和类的映射计划
+ * <p>
+ * 导出时alias是Map<"类属性名","列名">，第一行写列名；导入时alias是Map<"列名","类属性名">，
+ * 第一行是列名，按列名找到属性。没有xlsx的zip和xml开销，数据直接在直接缓冲区中编码和解析。
+ */
+public class CsvUtil {
+    /**
+     * 逐个读取迭代器中的对象写成csv
+     *
+     * @param rows   对象迭代器，写完后不关闭数据源
+     * @param clazz  对象类型，决定列对应的属性
+     * @param out    输出流，写完后不关闭
+     * @param alias  指定对象属性别名，生成列名和列顺序Map<"类属性名","列名">
+     * @param config 读写参数
+     * @throws IOException
+     */
+    public static <T> void pojo2Csv(Iterator<? extends T> rows, Class<T> clazz, OutputStream out, LinkedHashMap<String, String> alias, CsvConfig config) throws IOException {
+        pojo2Csv(rows, clazz, Channels.newChannel(out), alias, config);
+        out.flush();
+    }
+
+    /**
+     * 逐个读取Stream中的对象写成csv
+     *
+     * @param rows   对象流，按顺序读取，写完后不关闭
+     * @param clazz  对象类型，决定列对应的属性
+     * @param out    输出流，写完后不关闭
+     * @param alias  指定对象属性别名，生成列名和列顺序Map<"类属性名","列名">
+     * @param config 读写参数
+     * @throws IOException
+     */
+    public static <T> void pojo2Csv(Stream<? extends T> rows, Class<T> clazz, OutputStream out, LinkedHashMap<String, String> alias, CsvConfig config) throws IOException {
+        pojo2Csv(rows.iterator(), clazz, out, alias, config);
+    }
+
+    /**
+     * 逐个读取迭代器中的对象写成csv文件，文件已经存在时覆盖
+     *
+     * @param rows   对象迭代器，写完后不关闭数据源
+     * @param clazz  对象类型，决定列对应的属性
+     * @param file   csv文件
+     * @param alias  指定对象属性别名，生成列名和列顺序Map<"类属性名","列名">
+     * @param config 读写参数
+     * @throws IOException
+     */
+    public static <T> void pojo2Csv(Iterator<? extends T> rows, Class<T> clazz, Path file, LinkedHashMap<String, String> alias, CsvConfig config) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            pojo2Csv(rows, clazz, channel, alias, config);
+        }
+    }
+
+    private static <T> void pojo2Csv(Iterator<? extends T> rows, Class<T> clazz, WritableByteChannel channel, LinkedHashMap<String, String> alias, CsvConfig config) throws IOException {
+        PojoMapping<T> mapping = PojoMapping.of(clazz, alias.keySet(), config.getDatePatterns());
+        mapping.checkReadable();
+        PropertyAccessor[] accessors = mapping.getAccessors();
+        try (CsvWriter writer = new CsvWriter(channel, config)) {
+            for (String columnName : alias.values()) {
+                writer.field(columnName);
+            }
+            writer.endRecord();
+            while (rows.hasNext()) {
+                T model = rows.next();
+                for (PropertyAccessor accessor : accessors) {
+                    writeField(writer, accessor, accessor.get(model));
+                }
+                writer.endRecord();
+            }
+        }
+    }
+
+    /**
+     * 按属性类型写出字段，文本和整数直接编码，不生成中间的String
+     */
+    private static void writeField(CsvWriter writer, PropertyAccessor accessor, Object value) throws IOException {
+        if (value == null) {
+            writer.field(null);
+            return;
+        }
+        switch (accessor.getValueType()) {
+            case STRING:
+                writer.field((String) value);
+                break;
+            case LONG:
+            case INTEGER:
+            case SHORT:
+            case BYTE:
+                writer.field(((Number) value).longValue());
+                break;
+            case BIG_DECIMAL:
+                //不使用科学计数法
+                writer.field(((BigDecimal) value).toPlainString());
+                break;
+            default:
+                writer.field(accessor.format(value));
+                break;
+        }
+    }
+
+    /**
+     * 逐行读取csv转换成对象交给consumer，内存中只有当前行
+     *
+     * @param inputStream csv输入流，读完后不关闭
+     * @param clazz       对象类型
+     * @param alias       列别名,格式要求：Map<"列名","类属性名">
+     * @param config      读写参数
+     * @param consumer    接收转换好的对象
+     * @throws IOException
+     */
+    public static <T> void csv2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias, CsvConfig config, Consumer<? super T> consumer) throws IOException {
+        csv2Pojo(Channels.newChannel(inputStream), clazz, alias, config, consumer);
+    }
+
+    /**
+     * 逐行读取csv文件转换成对象交给consumer
+     *
+     * @param file     csv文件
+     * @param clazz    对象类型
+     * @param alias    列别名,格式要求：Map<"列名","类属性名">
+     * @param config   读写参数
+     * @param consumer 接收转换好的对象
+     * @throws IOException
+     */
+    public static <T> void csv2Pojo(Path file, Class<T> clazz, LinkedHashMap<String, String> alias, CsvConfig config, Consumer<? super T> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            csv2Pojo(channel, clazz, alias, config, consumer);
+        }
+    }
+
+    /**
+     * 读取csv转换成对象
+     *
+     * @param inputStream csv输入流，读完后不关闭
+     * @param clazz       对象类型
+     * @param alias       列别名,格式要求：Map<"列名","类属性名">
+     * @param config      读写参数
+     * @return
+     * @throws IOException
+     */
+    public static <T> List<T> csv2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias, CsvConfig config) throws IOException {
+        List<T> list = new ArrayList<>();
+        csv2Pojo(inputStream, clazz, alias, config, list::add);
+        return list;
+    }
+
+    private static <T> void csv2Pojo(ReadableByteChannel channel, Class<T> clazz, LinkedHashMap<String, String> alias, CsvConfig config, Consumer<? super T> consumer) throws IOException {
+        //csv没有标题行，第0行就是列名
+        RowPojoMapper<T> mapper = new RowPojoMapper<>(clazz, alias, config.getDatePatterns(), consumer, 0);
+        try {
+            CsvParser.parse(channel, config, mapper);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("解析csv失败", e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.poi.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 把字段直接编码成UTF-8写进直接缓冲区，缓冲区满了才写到通道
+ * <p>
+ * 文本逐个字符编码，整数逐位写出，不生成中间的String和byte[]。
+ * 包含分隔符、引号或换行的字段加上引号，字段中的引号写成两个引号。
+ */
+final class CsvWriter implements Closeable {
+    private static final byte QUOTE = '"';
+
+    private final WritableByteChannel channel;
+
+    private final ByteBuffer buffer;
+
+    private final byte delimiter;
+
+    /**
+     * 整数逐位写出时使用的临时数组
+     */
+    private final byte[] digits = new byte[20];
+
+    /**
+     * 当前行是否已经写过字段，决定要不要先写分隔符
+     */
+    private boolean fieldWritten;
+
+    CsvWriter(WritableByteChannel channel, CsvConfig config) throws IOException {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(config.getBufferSize());
+        this.delimiter = (byte) config.getDelimiter();
+        if (config.isWriteBom()) {
+            buffer.put((byte) 0xEF).put((byte) 0xBB).put((byte) 0xBF);
+        }
+    }
+
+    /**
+     * 写出一个文本字段
+     *
+     * @param text 文本，为null时写出空字段
+     */
+    void field(CharSequence text) throws IOException {
+        separator();
+        if (text == null) {
+            return;
+        }
+        boolean quoted = needsQuote(text);
+        if (quoted) {
+            put(QUOTE);
+        }
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                if (c == '"') {
+                    put(QUOTE);
+                }
+                put((byte) c);
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                ensure(4);
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                //不成对的代理字符不能编码，和String.getBytes一样写成问号
+                put((byte) '?');
+            } else {
+                ensure(3);
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        if (quoted) {
+            put(QUOTE);
+        }
+    }
+
+    /**
+     * 写出一个整数字段
+     */
+    void field(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            field(Long.toString(value));
+            return;
+        }
+        separator();
+        long remaining = value < 0 ? -value : value;
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + (int) (remaining % 10));
+            remaining /= 10;
+        } while (remaining > 0);
+        ensure(length + 1);
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    /**
+     * 结束当前行
+     */
+    void endRecord() throws IOException {
+        ensure(2);
+        buffer.put((byte) '\r').put((byte) '\n');
+        fieldWritten = false;
+    }
+
+    /**
+     * 把缓冲区中的数据写到通道
+     */
+    void flush() throws IOException {
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        ((Buffer) buffer).clear();
+    }
+
+    /**
+     * 写出剩余的数据，不关闭通道
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void separator() throws IOException {
+        if (fieldWritten) {
+            put(delimiter);
+        }
+        fieldWritten = true;
+    }
+
+    private boolean needsQuote(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == delimiter || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.put(b);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.poi.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 日期时间的格式化和Excel日期数字的转换
+ * <p>
+ * DateTimeFormatter不可变、线程安全，按格式缓存后所有线程共用，
+ * 不再为每个单元格创建SimpleDateFormat。
+ */
+final class DateFormats {
+    /**
+     * 日期时间的默认格式
+     */
+    static final String DEFAULT_DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * 只有日期时的默认格式
+     */
+    static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd";
+
+    /**
+     * Excel日期数字的起点，1900-03-01之后的日期从这一天开始算
+     */
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    /**
+     * 一天的纳秒数
+     */
+    private static final double NANOS_PER_DAY = 86_400_000_000_000d;
+
+    /**
+     * 一天的毫秒数
+     */
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * 按格式缓存的DateTimeFormatter
+     */
+    private static final ConcurrentMap<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    private DateFormats() {
+    }
+
+    /**
+     * 获取指定格式的DateTimeFormatter
+     *
+     * @param pattern 格式
+     * @return
+     */
+    static DateTimeFormatter formatter(String pattern) {
+        DateTimeFormatter formatter = FORMATTERS.get(pattern);
+        if (formatter == null) {
+            formatter = FORMATTERS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+        }
+        return formatter;
+    }
+
+    /**
+     * 属性类型的默认格式
+     */
+    static String defaultPattern(Class<?> type) {
+        return type == LocalDate.class ? DEFAULT_DATE_PATTERN : DEFAULT_DATE_TIME_PATTERN;
+    }
+
+    /**
+     * 把Date、LocalDate、LocalDateTime、Instant转换成本地时间
+     */
+    static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof Instant) {
+            return LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault());
+        } else if (value instanceof Date) {
+            //java.sql.Date不支持toInstant，按毫秒数转换
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((Date) value).getTime()), ZoneId.systemDefault());
+        }
+        throw new IllegalArgumentException("不支持的日期类型:" + value.getClass().getName());
+    }
+
+    /**
+     * 把本地时间转换成属性类型
+     *
+     * @param dateTime 本地时间
+     * @param type     属性类型
+     * @return
+     */
+    static Object fromLocalDateTime(LocalDateTime dateTime, Class<?> type) {
+        if (type == LocalDateTime.class) {
+            return dateTime;
+        } else if (type == LocalDate.class) {
+            return dateTime.toLocalDate();
+        }
+        Instant instant = dateTime.atZone(ZoneId.systemDefault()).toInstant();
+        if (type == Instant.class) {
+            return instant;
+        } else if (type == java.sql.Date.class) {
+            return new java.sql.Date(instant.toEpochMilli());
+        } else if (type == java.sql.Timestamp.class) {
+            return java.sql.Timestamp.from(instant);
+        }
+        return new Date(instant.toEpochMilli());
+    }
+
+    /**
+     * 按格式解析文本，格式中没有时间部分时为当天0点，只有年月或年时为当月或当年的第一天
+     *
+     * @param text      文本
+     * @param formatter 格式
+     * @return
+     * @throws DateTimeParseException 文本不符合格式，或者格式中没有年份，比如HH:mm
+     */
+    static LocalDateTime parse(String text, DateTimeFormatter formatter) {
+        String trimmed = text.trim();
+        TemporalAccessor parsed = formatter.parse(trimmed);
+        LocalDate date = parsed.query(TemporalQueries.localDate());
+        if (date == null) {
+            int year;
+            if (parsed.isSupported(ChronoField.YEAR)) {
+                year = parsed.get(ChronoField.YEAR);
+            } else if (parsed.isSupported(ChronoField.YEAR_OF_ERA)) {
+                year = parsed.get(ChronoField.YEAR_OF_ERA);
+            } else {
+                throw new DateTimeParseException("日期格式中没有年份，无法转换成日期:" + trimmed, trimmed, 0);
+            }
+            date = LocalDate.of(year, field(parsed, ChronoField.MONTH_OF_YEAR, 1), field(parsed, ChronoField.DAY_OF_MONTH, 1));
+        }
+        LocalTime time = parsed.query(TemporalQueries.localTime());
+        if (time == null) {
+            time = LocalTime.of(field(parsed, ChronoField.HOUR_OF_DAY, 0), field(parsed, ChronoField.MINUTE_OF_HOUR, 0));
+        }
+        return LocalDateTime.of(date, time);
+    }
+
+    /**
+     * 读取解析出的字段，没有时返回默认值
+     */
+    private static int field(TemporalAccessor parsed, ChronoField field, int defaultValue) {
+        return parsed.isSupported(field) ? parsed.get(field) : defaultValue;
+    }
+
+    /**
+     * 把Excel的日期数字转换成本地时间，精确到毫秒，使用1900日期系统
+     *
+     * @param serial 日期数字
+     * @return
+     */
+    static LocalDateTime fromExcelDate(double serial) {
+        long days = (long) Math.floor(serial);
+        long millis = Math.round((serial - days) * MILLIS_PER_DAY);
+        if (millis == MILLIS_PER_DAY) {
+            days++;
+            millis = 0;
+        }
+        //Excel把1900年当成闰年，1900-03-01之前的日期要少算一天
+        LocalDate date = days < 61 ? EXCEL_EPOCH.plusDays(days + 1) : EXCEL_EPOCH.plusDays(days);
+        return date.atStartOfDay().plus(millis, ChronoUnit.MILLIS);
+    }
+
+    /**
+     * 把本地时间转换成Excel的日期数字，使用1900日期系统
+     *
+     * @param dateTime 本地时间
+     * @return
+     */
+    static double toExcelDate(LocalDateTime dateTime) {
+        long days = ChronoUnit.DAYS.between(EXCEL_EPOCH, dateTime.toLocalDate());
+        if (days <= 60) {
+            days--;
+        }
+        return days + dateTime.toLocalTime().toNanoOfDay() / NANOS_PER_DAY;
+    }
+
+    /**
+     * 把java的日期格式转换成Excel的单元格格式
+     * <p>
+     * 毫秒S写成0，星期E写成ddd或dddd，L按M处理；Excel没有对应写法的字母，比如u、Q、w、z，
+     * 整个格式退回到默认的日期或日期时间格式。
+     *
+     * @param pattern java的日期格式
+     * @return
+     */
+    static String toExcelFormat(String pattern) {
+        StringBuilder format = new StringBuilder(pattern.length() + 4);
+        boolean quoted = false;
+        boolean hasTime = false;
+        boolean supported = true;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                format.append('"');
+                continue;
+            }
+            if (quoted || !Character.isLetter(c)) {
+                format.append(c);
+                continue;
+            }
+            //同一个字母连续出现的次数
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == c) {
+                count++;
+            }
+            i += count - 1;
+            switch (c) {
+                case 'y':
+                case 'M':
+                case 'd':
+                    repeat(format, c, count);
+                    break;
+                case 'L':
+                    repeat(format, 'M', count);
+                    break;
+                case 'H':
+                case 'h':
+                case 'm':
+                case 's':
+                    hasTime = true;
+                    repeat(format, c, count);
+                    break;
+                case 'S':
+                    hasTime = true;
+                    repeat(format, '0', count);
+                    break;
+                case 'E':
+                    repeat(format, 'd', count >= 4 ? 4 : 3);
+                    break;
+                case 'a':
+                    format.append("AM/PM");
+                    break;
+                default:
+                    supported = false;
+                    break;
+            }
+        }
+        if (!supported) {
+            return toExcelFormat(hasTime ? DEFAULT_DATE_TIME_PATTERN : DEFAULT_DATE_PATTERN);
+        }
+        return format.toString();
+    }
+
+    private static void repeat(StringBuilder format, char c, int count) {
+        for (int i = 0; i < count; i++) {
+            format.append(c);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.poi.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 保存在临时文件中的共享字符串表
+ * <p>
+ * 打开时用SAX把sharedStrings.xml逐条写成两个临时文件：数据文件保存UTF-8字节，
+ * 索引文件保存每条字符串的起始位置（long），索引文件通过内存映射读取，不占用堆。
+ * 查找时先查LRU缓存，没有命中再按位置读数据文件，堆内存只和缓存大小有关，和唯一字符串的数量无关。
+ * <p>
+ * 和ReadOnlySharedStringsTable不同，注音（rPh）不计入字符串，只保留显示的文本。
+ */
+final class DiskSharedStrings implements SharedStrings {
+    /**
+     * 默认缓存的字符串条数
+     */
+    static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private final Path dataFile;
+    private final Path indexFile;
+    private final FileChannel data;
+
+    /**
+     * 每条字符串的起始位置，最后多一个数据文件的长度
+     */
+    private final LongBuffer offsets;
+
+    /**
+     * 字符串条数
+     */
+    private final int count;
+
+    /**
+     * 最近使用的字符串
+     */
+    private final Map<Integer, String> cache;
+
+    /**
+     * 从数据文件读取的次数，没有命中缓存时加一
+     */
+    private long readCount;
+
+    /**
+     * 读数据文件时复用的缓冲区
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(256);
+
+    private DiskSharedStrings(Path dataFile, Path indexFile, int count, int cacheSize) throws IOException {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.count = count;
+        this.data = FileChannel.open(dataFile, StandardOpenOption.READ);
+        try (FileChannel index = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            //映射在通道关闭后仍然有效
+            this.offsets = index.map(FileChannel.MapMode.READ_ONLY, 0, index.size()).asLongBuffer();
+        }
+        this.cache = new LinkedHashMap<Integer, String>(Math.min(cacheSize, 1024) * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * 把xlsx文件的共享字符串表写到临时文件并打开
+     *
+     * @param pkg       xlsx文件
+     * @param cacheSize 缓存的字符串条数
+     * @return
+     * @throws Exception
+     */
+    static DiskSharedStrings open(OPCPackage pkg, int cacheSize) throws Exception {
+        Path dataFile = Files.createTempFile("sharedStrings", ".dat");
+        Path indexFile = Files.createTempFile("sharedStrings", ".idx");
+        try {
+            int count = 0;
+            List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            try (OutputStream dataOut = new BufferedOutputStream(Files.newOutputStream(dataFile), 1 << 16);
+                 DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile), 1 << 16))) {
+                Writer writer = new Writer(dataOut, indexOut);
+                if (!parts.isEmpty()) {
+                    XMLReader xmlReader = SAXHelper.newXMLReader();
+                    xmlReader.setContentHandler(writer);
+                    try (InputStream in = parts.get(0).getInputStream()) {
+                        xmlReader.parse(new InputSource(in));
+                    }
+                }
+                //最后一条字符串的结束位置
+                indexOut.writeLong(writer.offset);
+                count = writer.count;
+            }
+            return new DiskSharedStrings(dataFile, indexFile, count, cacheSize);
+        } catch (Exception | Error e) {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(indexFile);
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized String get(int index) throws IOException {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("共享字符串不存在:" + index);
+        }
+        String value = cache.get(index);
+        if (value == null) {
+            readCount++;
+            value = read(index);
+            cache.put(index, value);
+        }
+        return value;
+    }
+
+    /**
+     * 从数据文件读取的次数
+     */
+    synchronized long getReadCount() {
+        return readCount;
+    }
+
+    /**
+     * 缓存中的字符串条数
+     */
+    synchronized int getCachedCount() {
+        return cache.size();
+    }
+
+    /**
+     * 从数据文件读取一条字符串
+     */
+    private String read(int index) throws IOException {
+        long start = offsets.get(index);
+        int length = (int) (offsets.get(index + 1) - start);
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+        }
+        //通过Buffer调用，避免在java 8上找不到ByteBuffer的协变方法
+        ((Buffer) buffer).clear();
+        ((Buffer) buffer).limit(length);
+        while (buffer.hasRemaining()) {
+            if (data.read(buffer, start + buffer.position()) < 0) {
+                throw new IOException("共享字符串文件不完整:" + index);
+            }
+        }
+        return new String(buffer.array(), 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        cache.clear();
+        try {
+            data.close();
+        } finally {
+            Files.deleteIfExists(dataFile);
+            //Windows上映射未释放时删除会失败，留给临时目录清理
+            try {
+                Files.deleteIfExists(indexFile);
+            } catch (IOException e) {
+                indexFile.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * 解析sharedStrings.xml，逐条写出字符串和起始位置
+     * <p>
+     * 每个si是一条字符串，由一个t或者多个r中的t拼成，rPh中的t是注音，跳过。
+     */
+    private static final class Writer extends DefaultHandler {
+        private final OutputStream dataOut;
+        private final DataOutputStream indexOut;
+        private final StringBuilder text = new StringBuilder();
+        private boolean inText;
+        private boolean inPhonetic;
+        private long offset;
+        private int count;
+
+        Writer(OutputStream dataOut, DataOutputStream indexOut) {
+            this.dataOut = dataOut;
+            this.indexOut = indexOut;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "si":
+                    text.setLength(0);
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    inText = !inPhonetic;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "si":
+                    try {
+                        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                        indexOut.writeLong(offset);
+                        dataOut.write(bytes);
+                        offset += bytes.length;
+                        count++;
+                    } catch (IOException e) {
+                        throw new SAXException(e);
+                    }
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "t":
+                    inText = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inText) {
+                text.append(ch, start, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.poi.util;
+
+/**
+ * 由ExcelMapperProcessor为带有@ExcelColumn注解的类生成的映射器
+ * <p>
+ * 生成的类名为"类名ExcelMapper"，和pojo在同一个包中，直接调用getter和setter，
+ * ExcelUtil找到映射器时不再通过反射解析属性。
+ *
+ * @param <T> pojo类型
+ */
+public interface ExcelMapper<T> {
+    /**
+     * pojo类型
+     */
+    Class<T> type();
+
+    /**
+     * 属性名，按列的顺序
+     */
+    String[] properties();
+
+    /**
+     * 列名，和properties一一对应
+     */
+    String[] columnNames();
+
+    /**
+     * 属性类型，和properties一一对应
+     */
+    Class<?>[] types();
+
+    /**
+     * 日期格式，和properties一一对应，没有指定时为空字符串
+     */
+    String[] formats();
+
+    /**
+     * 创建一个新对象
+     */
+    T newInstance();
+
+    /**
+     * 读取第index个属性的值
+     */
+    Object get(T pojo, int index);
+
+    /**
+     * 设置第index个属性的值
+     */
+    void set(T pojo, int index, Object value);
+}
@@ -0,0 +1,129 @@
+package com.poi.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次导出或导入的统计结果，创建后不再修改
+ * <p>
+ * 多张表时各阶段的耗时是所有表的合计，并行生成时会大于实际经过的时间。
+ */
+public final class ExcelMetrics {
+    /**
+     * 操作类型
+     */
+    public enum Operation {
+        EXPORT, IMPORT
+    }
+
+    /**
+     * 阶段
+     */
+    public enum Phase {
+        /**
+         * 导出：创建工作簿和单元格格式
+         */
+        WORKBOOK_CREATE,
+        /**
+         * 导出：写入表标题、列名和批注
+         */
+        HEADER,
+        /**
+         * 导出：写入数据行
+         */
+        DATA_ROWS,
+        /**
+         * 导出：设置列宽
+         */
+        AUTOSIZE,
+        /**
+         * 导出：压缩并写出xlsx文件
+         */
+        WRITE,
+        /**
+         * 导入：读取输入流并打开表格
+         */
+        OPEN,
+        /**
+         * 导入：解析数据行并转换成对象
+         */
+        PARSE
+    }
+
+    private final Operation operation;
+    private final long[] phaseNanos;
+    private final long totalNanos;
+    private final long rows;
+    private final long cells;
+    private final long bytes;
+
+    ExcelMetrics(Operation operation, long[] phaseNanos, long totalNanos, long rows, long cells, long bytes) {
+        this.operation = operation;
+        this.phaseNanos = phaseNanos;
+        this.totalNanos = totalNanos;
+        this.rows = rows;
+        this.cells = cells;
+        this.bytes = bytes;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * 阶段耗时，单位纳秒，没有经过的阶段为0
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * 总耗时，单位纳秒
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * 数据行数，不包括表标题和列名
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 单元格数，导出时包括表标题和列名，导入时是对应到属性的单元格
+     */
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * 导出时写出的字节数，导入时读入的字节数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * 每秒处理的数据行数，按总耗时计算
+     */
+    public double getRowsPerSecond() {
+        return totalNanos == 0 ? 0 : rows * (double) TimeUnit.SECONDS.toNanos(1) / totalNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(operation.name()).append('{');
+        for (Phase phase : Phase.values()) {
+            if (phaseNanos[phase.ordinal()] > 0) {
+                sb.append(phase.name()).append('=').append(TimeUnit.NANOSECONDS.toMillis(phaseNanos[phase.ordinal()])).append("ms, ");
+            }
+        }
+        return sb.append("total=").append(TimeUnit.NANOSECONDS.toMillis(totalNanos)).append("ms")
+                .append(", rows=").append(rows)
+                .append(", cells=").append(cells)
+                .append(", bytes=").append(bytes)
+                .append(", rows/s=").append((long) getRowsPerSecond())
+                .append('}').toString();
+    }
+}
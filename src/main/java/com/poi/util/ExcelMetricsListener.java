@@ -0,0 +1,25 @@
+package com.poi.util;
+
+/**
+ * 导出和导入的统计监听器
+ * <p>
+ * 通过ExportConfig或ImportConfig设置，没有设置时不计时、不包装输出流，也不创建统计对象。
+ * 多张表并行生成时回调可能在不同线程上发生，实现类需要自己保证线程安全。
+ */
+public interface ExcelMetricsListener {
+    /**
+     * 一个阶段结束时回调，多张表时每张表的表头、数据行、列宽阶段各回调一次
+     *
+     * @param phase 阶段
+     * @param nanos 耗时，单位纳秒
+     */
+    default void onPhase(ExcelMetrics.Phase phase, long nanos) {
+    }
+
+    /**
+     * 导出或导入结束时回调，出错时不回调
+     *
+     * @param metrics 统计结果
+     */
+    void onFinished(ExcelMetrics metrics);
+}
@@ -0,0 +1,146 @@
+package com.poi.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 导出用的xlsx模板
+ * <p>
+ * 模板的第一张表中最后一行是数据行的样板，样板行中每个单元格的格式就是对应列数据单元格的格式，
+ * 其上的标题、列名、批注、列宽和合并区域都原样保留。注册时解析一次模板，去掉样板行后把文件内容缓存起来，
+ * 每次导出只需要读入缓存的内容，从样板行的位置开始写数据，不再创建标题、格式和批注。
+ * <p>
+ * 模板按名称注册一次，之后在任何线程中都可以按名称取出使用。
+ */
+public final class ExcelTemplate {
+    /**
+     * 已经注册的模板
+     */
+    private static final Map<String, ExcelTemplate> TEMPLATES = new ConcurrentHashMap<>();
+
+    private final String name;
+
+    /**
+     * 去掉样板行之后的模板文件内容
+     */
+    private final byte[] content;
+
+    /**
+     * 第一行数据所在的行，也就是样板行原来的位置
+     */
+    private final int dataStartRow;
+
+    /**
+     * 样板行中每一列的格式序号，没有单元格的列为0
+     */
+    private final short[] columnStyles;
+
+    private ExcelTemplate(String name, byte[] content, int dataStartRow, short[] columnStyles) {
+        this.name = name;
+        this.content = content;
+        this.dataStartRow = dataStartRow;
+        this.columnStyles = columnStyles;
+    }
+
+    /**
+     * 注册模板，名称相同时替换原来的模板
+     *
+     * @param name     模板名称
+     * @param template xlsx模板，读完后不关闭
+     * @return 注册的模板
+     * @throws IOException 模板不能读取
+     */
+    public static ExcelTemplate register(String name, InputStream template) throws IOException {
+        if (name == null) {
+            throw new IllegalArgumentException("模板名称不能为null");
+        }
+        ExcelTemplate excelTemplate = parse(name, template);
+        TEMPLATES.put(name, excelTemplate);
+        return excelTemplate;
+    }
+
+    /**
+     * 按名称获取已经注册的模板
+     *
+     * @param name 模板名称
+     * @return 模板
+     */
+    public static ExcelTemplate get(String name) {
+        ExcelTemplate template = TEMPLATES.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("模板没有注册:" + name);
+        }
+        return template;
+    }
+
+    /**
+     * 删除注册的模板
+     *
+     * @param name 模板名称
+     * @return 删除的模板，没有注册时返回null
+     */
+    public static ExcelTemplate unregister(String name) {
+        return TEMPLATES.remove(name);
+    }
+
+    private static ExcelTemplate parse(String name, InputStream template) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(template)) {
+            if (workbook.getNumberOfSheets() == 0) {
+                throw new IllegalArgumentException("模板中没有表:" + name);
+            }
+            XSSFSheet sheet = workbook.getSheetAt(0);
+            XSSFRow prototype = sheet.getRow(sheet.getLastRowNum());
+            if (prototype == null || prototype.getLastCellNum() < 1) {
+                throw new IllegalArgumentException("模板的最后一行必须是数据行的样板:" + name);
+            }
+            short[] columnStyles = new short[prototype.getLastCellNum()];
+            for (Cell cell : prototype) {
+                columnStyles[cell.getColumnIndex()] = cell.getCellStyle().getIndex();
+            }
+            int dataStartRow = prototype.getRowNum();
+            //样板行只提供格式，流式写出时新行必须在已有的行之后
+            sheet.removeRow(prototype);
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            workbook.write(content);
+            return new ExcelTemplate(name, content.toByteArray(), dataStartRow, columnStyles);
+        }
+    }
+
+    /**
+     * 读入缓存的模板内容，每次导出得到一个新的工作簿
+     */
+    XSSFWorkbook open() throws IOException {
+        return new XSSFWorkbook(new ByteArrayInputStream(content));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDataStartRow() {
+        return dataStartRow;
+    }
+
+    /**
+     * 样板行的列数
+     */
+    public int getColumnCount() {
+        return columnStyles.length;
+    }
+
+    /**
+     * 一列数据单元格的格式序号，超出样板行的列使用工作簿默认格式
+     */
+    short getColumnStyle(int column) {
+        return column < columnStyles.length ? columnStyles[column] : 0;
+    }
+}
@@ -2,26 +2,50 @@ package com.poi.util;
 
 
 import com.alibaba.fastjson.JSON;
-import org.apache.commons.beanutils.BeanUtils;
+import com.poi.annotation.ExcelColumn;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.ss.util.RegionUtil;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.text.SimpleDateFormat;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class ExcelUtil {
     private static final Logger logger = LoggerFactory.getLogger(ExcelUtil.class);
 
+    /**
+     * double能精确表示的最大整数，超过的整数按文本写出，避免丢失精度
+     */
+    private static final long MAX_EXACT_LONG = 1L << 53;
+
     /**
      * 将对象数组转换成excel
      *
@@ -32,129 +56,495 @@ public class ExcelUtil {
      * @throws Exception
      */
     public static <T> void pojo2Excel(List<T> pojoList, OutputStream out, LinkedHashMap<String, String> alias, String headLine, int fieldNum) throws Exception {
-        //创建一个工作簿
-        XSSFWorkbook wb = new XSSFWorkbook();
-        //创建一个表
-        XSSFSheet sheet = wb.createSheet();
+        pojo2Excel(pojoList, out, alias, headLine, fieldNum, ExportConfig.defaults());
+    }
+
+    /**
+     * 将对象数组转换成excel，可以通过config选择流式写出
+     *
+     * @param pojoList 对象数组
+     * @param out      输出流
+     * @param alias    指定对象属性别名，生成列名和列顺序Map<"类属性名","列名">
+     * @param headLine 表标题
+     * @param config   导出参数
+     * @throws Exception
+     */
+    public static <T> void pojo2Excel(List<T> pojoList, OutputStream out, LinkedHashMap<String, String> alias, String headLine, int fieldNum, ExportConfig config) throws Exception {
+        //没有设置监听器时不计时
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.EXPORT);
+        long phaseStart = metrics.mark();
+        //创建一个工作簿，流式模式下只在内存中保留一个窗口的行
+        Workbook wb = createWorkbook(config, alias);
+        try {
+            //格式按描述缓存，同一个格式整个工作簿共用一个
+            StyleRegistry styles = new StyleRegistry(wb);
+            //设置表头格式
+            CellStyle cellStyle = styles.get(StyleDescriptor.TITLE);
+            //设置表列名格式
+            CellStyle excelCellHeadType = styles.get(StyleDescriptor.COLUMN_NAME);
+            metrics.phase(ExcelMetrics.Phase.WORKBOOK_CREATE, phaseStart);
+            //数据行超过一张表的上限时拆分到多张表，表按顺序创建，结果是确定的
+            int rowsPerSheet = config.getMaxRowsPerSheet();
+            int sheetCount = Math.max(1, (pojoList.size() + rowsPerSheet - 1) / rowsPerSheet);
+            List<Callable<Void>> sheetTasks = new ArrayList<>(sheetCount);
+            for (int i = 0; i < sheetCount; i++) {
+                phaseStart = metrics.mark();
+                //创建一个表
+                Sheet sheet = wb.createSheet();
+                //写入时记录列宽，流式模式下已经刷出的行不需要再读回来
+                ColumnWidthTracker widthTracker = new ColumnWidthTracker(alias.size());
+                insertHead(wb, sheet, headLine, fieldNum, alias, cellStyle, excelCellHeadType, widthTracker);
+                if (i == 0) {
+                    //设置批注，流式模式下列名行随后可能被刷出，所以要在插入数据之前添加
+                    insertComment(wb, sheet);
+                }
+                metrics.phase(ExcelMetrics.Phase.HEADER, phaseStart);
+                List<T> models = pojoList.subList(i * rowsPerSheet, Math.min(pojoList.size(), (i + 1) * rowsPerSheet));
+                sheetTasks.add(() -> {
+                    long taskStart = metrics.mark();
+                    //从第2行开始插入数据
+                    insertColumnDate(2, models, sheet, alias, config.getDatePatterns(), styles, widthTracker);
+                    metrics.phase(ExcelMetrics.Phase.DATA_ROWS, taskStart);
+                    taskStart = metrics.mark();
+                    //按记录的最大宽度设置列宽，中文按两个字符计算
+                    widthTracker.apply(sheet);
+                    metrics.phase(ExcelMetrics.Phase.AUTOSIZE, taskStart);
+                    return null;
+                });
+            }
+            //SXSSF每张表有自己的临时文件，可以并行写；XSSF的共享字符串表不加锁，只能串行；
+            //按列共享文本时序号按写出的先后分配，并行写会让每次生成的文件不同，也只能串行
+            if (config.isParallel() && sheetCount > 1 && wb instanceof SXSSFWorkbook && !(wb instanceof StringStrategyWorkbook)) {
+                ForkJoinPool pool = config.getForkJoinPool() != null ? config.getForkJoinPool() : ForkJoinPool.commonPool();
+                List<FutureTask<Void>> futures = new ArrayList<>(sheetCount);
+                Exception failure = null;
+                try {
+                    for (Callable<Void> sheetTask : sheetTasks) {
+                        FutureTask<Void> future = new FutureTask<>(sheetTask);
+                        pool.execute(future);
+                        futures.add(future);
+                    }
+                } catch (RuntimeException e) {
+                    //线程池拒绝时已经提交的表仍要等待结束，之后才能关闭工作簿
+                    failure = e;
+                }
+                awaitSheets(futures, failure);
+            } else {
+                for (Callable<Void> sheetTask : sheetTasks) {
+                    sheetTask.call();
+                }
+            }
+            //输出表格文件
+            write(wb, out, metrics);
+            metrics.finish(pojoList.size(), cells(pojoList.size(), sheetCount, alias.size()));
+        } finally {
+            close(wb);
+        }
+    }
+
+    /**
+     * 等待所有并行生成的表结束，有表失败时也要等其他表写完，之后才能关闭工作簿
+     *
+     * @param futures 各张表的任务
+     * @param failure 提交任务时的异常，没有时为null
+     * @throws Exception 抛出第一个异常，其他异常作为suppressed
+     */
+    private static void awaitSheets(List<FutureTask<Void>> futures, Throwable failure) throws Exception {
+        boolean interrupted = false;
+        for (FutureTask<Void> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    //工作线程还在写入工作簿，不能提前返回
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw (Exception) failure;
+        }
+    }
+
+    /**
+     * 逐个读取迭代器中的对象写入excel，不需要先把所有对象放进List
+     * <p>
+     * 和流式写出一起使用时，内存中只有一个窗口的行和迭代器当前的对象。
+     * 超过每张表的行数时接着写下一张表，对象按顺序到达，所以不会并行生成。
+     *
+     * @param rows     对象迭代器，写完后不关闭数据源
+     * @param clazz    对象类型，决定列对应的属性，不再取第一个对象的类型
+     * @param out      输出流
+     * @param alias    指定对象属性别名，生成列名和列顺序Map<"类属性名","列名">
+     * @param headLine 表标题
+     * @param fieldNum 标题合并到第几列
+     * @param config   导出参数
+     * @throws Exception
+     */
+    public static <T> void pojo2Excel(Iterator<? extends T> rows, Class<T> clazz, OutputStream out, LinkedHashMap<String, String> alias, String headLine, int fieldNum, ExportConfig config) throws Exception {
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.EXPORT);
+        long phaseStart = metrics.mark();
+        Workbook wb = createWorkbook(config, alias);
+        try {
+            StyleRegistry styles = new StyleRegistry(wb);
+            CellStyle cellStyle = styles.get(StyleDescriptor.TITLE);
+            CellStyle excelCellHeadType = styles.get(StyleDescriptor.COLUMN_NAME);
+            PojoMapping<T> mapping = PojoMapping.of(clazz, alias.keySet(), config.getDatePatterns());
+            mapping.checkReadable();
+            PropertyAccessor[] accessors = mapping.getAccessors();
+            CellStyle[] columnStyles = columnStyles(styles, accessors);
+            metrics.phase(ExcelMetrics.Phase.WORKBOOK_CREATE, phaseStart);
+            long rowCount = 0;
+            int sheetCount = 0;
+            //没有数据时也生成一张只有标题和列名的表
+            do {
+                phaseStart = metrics.mark();
+                Sheet sheet = wb.createSheet();
+                ColumnWidthTracker widthTracker = new ColumnWidthTracker(alias.size());
+                insertHead(wb, sheet, headLine, fieldNum, alias, cellStyle, excelCellHeadType, widthTracker);
+                if (sheetCount++ == 0) {
+                    insertComment(wb, sheet);
+                }
+                metrics.phase(ExcelMetrics.Phase.HEADER, phaseStart);
+                phaseStart = metrics.mark();
+                //从第2行开始插入数据，写满一张表或者迭代器结束时停止
+                int rowNum = 2;
+                int lastRowNum = config.getMaxRowsPerSheet() + 2;
+                while (rowNum < lastRowNum && rows.hasNext()) {
+                    insertRow(sheet.createRow(rowNum++), accessors, rows.next(), columnStyles, widthTracker);
+                }
+                rowCount += rowNum - 2;
+                metrics.phase(ExcelMetrics.Phase.DATA_ROWS, phaseStart);
+                phaseStart = metrics.mark();
+                widthTracker.apply(sheet);
+                metrics.phase(ExcelMetrics.Phase.AUTOSIZE, phaseStart);
+            } while (rows.hasNext());
+            write(wb, out, metrics);
+            metrics.finish(rowCount, cells(rowCount, sheetCount, alias.size()));
+        } finally {
+            close(wb);
+        }
+    }
+
+    /**
+     * 逐个读取Stream中的对象写入excel，不需要先把所有对象放进List
+     *
+     * @param rows     对象流，按顺序读取，写完后不关闭
+     * @param clazz    对象类型，决定列对应的属性
+     * @param out      输出流
+     * @param alias    指定对象属性别名，生成列名和列顺序Map<"类属性名","列名">
+     * @param headLine 表标题
+     * @param fieldNum 标题合并到第几列
+     * @param config   导出参数
+     * @throws Exception
+     */
+    public static <T> void pojo2Excel(Stream<? extends T> rows, Class<T> clazz, OutputStream out, LinkedHashMap<String, String> alias, String headLine, int fieldNum, ExportConfig config) throws Exception {
+        pojo2Excel(rows.iterator(), clazz, out, alias, headLine, fieldNum, config);
+    }
+
+    /**
+     * 逐个读取迭代器中的对象写入excel，列名由类的属性或@ExcelColumn注解生成，标题为类名
+     *
+     * @param rows   对象迭代器
+     * @param clazz  对象类型
+     * @param out    输出流
+     * @param config 导出参数
+     * @throws Exception
+     */
+    public static <T> void pojo2Excel(Iterator<? extends T> rows, Class<T> clazz, OutputStream out, ExportConfig config) throws Exception {
+        LinkedHashMap<String, String> alias = getAlias(clazz);
+        pojo2Excel(rows, clazz, out, alias, clazz.getName(), alias.size() - 1, config);
+    }
+
+    /**
+     * 逐个读取Stream中的对象写入excel，列名由类的属性或@ExcelColumn注解生成，标题为类名
+     *
+     * @param rows   对象流
+     * @param clazz  对象类型
+     * @param out    输出流
+     * @param config 导出参数
+     * @throws Exception
+     */
+    public static <T> void pojo2Excel(Stream<? extends T> rows, Class<T> clazz, OutputStream out, ExportConfig config) throws Exception {
+        pojo2Excel(rows.iterator(), clazz, out, config);
+    }
+
+    /**
+     * 按注册的模板导出，数据从模板的样板行开始写，每一列使用样板行中对应单元格的格式
+     * <p>
+     * 模板中的标题、列名、批注和列宽原样保留，不再创建；模板只有一张表，数据行不会拆分到多张表。
+     * 流式写出和文本写法的参数同样生效。
+     *
+     * @param template 注册的模板
+     * @param rows     对象迭代器，写完后不关闭数据源
+     * @param clazz    对象类型，决定列对应的属性
+     * @param out      输出流
+     * @param alias    按列顺序排列的属性Map<"类属性名","列名">，列名以模板为准
+     * @param config   导出参数
+     * @throws Exception
+     */
+    public static <T> void pojo2Excel(ExcelTemplate template, Iterator<? extends T> rows, Class<T> clazz, OutputStream out, LinkedHashMap<String, String> alias, ExportConfig config) throws Exception {
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.EXPORT);
+        long phaseStart = metrics.mark();
+        Workbook wb = createWorkbook(config, alias, template.open(), template.getDataStartRow());
+        try {
+            PojoMapping<T> mapping = PojoMapping.of(clazz, alias.keySet(), config.getDatePatterns());
+            mapping.checkReadable();
+            PropertyAccessor[] accessors = mapping.getAccessors();
+            CellStyle[] columnStyles = templateStyles(wb, template, accessors);
+            metrics.phase(ExcelMetrics.Phase.WORKBOOK_CREATE, phaseStart);
+            phaseStart = metrics.mark();
+            Sheet sheet = wb.getSheetAt(0);
+            //列宽以模板为准，记录的宽度不使用
+            ColumnWidthTracker widthTracker = new ColumnWidthTracker(alias.size());
+            int rowNum = template.getDataStartRow();
+            int lastRowNum = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+            while (rows.hasNext()) {
+                if (rowNum > lastRowNum) {
+                    throw new IllegalArgumentException("数据行超过了模板表的上限:" + template.getName());
+                }
+                insertRow(sheet.createRow(rowNum++), accessors, rows.next(), columnStyles, widthTracker);
+            }
+            metrics.phase(ExcelMetrics.Phase.DATA_ROWS, phaseStart);
+            write(wb, out, metrics);
+            long rowCount = rowNum - template.getDataStartRow();
+            metrics.finish(rowCount, rowCount * alias.size());
+        } finally {
+            close(wb);
+        }
+    }
+
+    /**
+     * 按注册的模板导出Stream中的对象
+     *
+     * @param template 注册的模板
+     * @param rows     对象流，按顺序读取，写完后不关闭
+     * @param clazz    对象类型，决定列对应的属性
+     * @param out      输出流
+     * @param alias    按列顺序排列的属性Map<"类属性名","列名">，列名以模板为准
+     * @param config   导出参数
+     * @throws Exception
+     */
+    public static <T> void pojo2Excel(ExcelTemplate template, Stream<? extends T> rows, Class<T> clazz, OutputStream out, LinkedHashMap<String, String> alias, ExportConfig config) throws Exception {
+        pojo2Excel(template, rows.iterator(), clazz, out, alias, config);
+    }
+
+    /**
+     * 模板中每一列的数据单元格格式，样板格式不是日期格式的日期列加上日期格式
+     *
+     * @param wb        由模板创建的工作簿
+     * @param template  模板
+     * @param accessors 按列顺序排列的属性读写器
+     * @return 按列顺序排列的格式
+     */
+    private static CellStyle[] templateStyles(Workbook wb, ExcelTemplate template, PropertyAccessor[] accessors) {
+        CellStyle[] columnStyles = new CellStyle[accessors.length];
+        Map<String, CellStyle> dateStyles = new HashMap<>();
+        for (int i = 0; i < accessors.length; i++) {
+            CellStyle style = wb.getCellStyleAt(template.getColumnStyle(i));
+            if (accessors[i].getValueType() == PropertyAccessor.ValueType.DATE
+                    && !DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString())) {
+                String pattern = accessors[i].getPattern();
+                CellStyle base = style;
+                style = dateStyles.computeIfAbsent(base.getIndex() + ":" + pattern, k -> setExcelDateCellType(wb, base, pattern));
+            }
+            columnStyles[i] = style;
+        }
+        return columnStyles;
+    }
+
+    /**
+     * 每一列的数据单元格格式，日期列加上日期格式，同一个日期格式整个工作簿共用一个
+     *
+     * @param styles    格式缓存
+     * @param accessors 按列顺序排列的属性读写器
+     * @return 按列顺序排列的格式
+     */
+    private static CellStyle[] columnStyles(StyleRegistry styles, PropertyAccessor[] accessors) {
+        CellStyle[] columnStyles = new CellStyle[accessors.length];
+        for (int i = 0; i < accessors.length; i++) {
+            StyleDescriptor descriptor = StyleDescriptor.CELL;
+            if (accessors[i].getValueType() == PropertyAccessor.ValueType.DATE) {
+                //日期以数字保存，通过格式显示
+                descriptor = descriptor.withDataFormat(DateFormats.toExcelFormat(accessors[i].getPattern()));
+            }
+            columnStyles[i] = styles.get(descriptor);
+        }
+        return columnStyles;
+    }
+
+    /**
+     * 输出表格文件，有监听器时记录写出的字节数
+     */
+    private static void write(Workbook wb, OutputStream out, MetricsRecorder metrics) throws IOException {
+        long phaseStart = metrics.mark();
+        OutputStream countingOut = metrics.wrap(out);
+        wb.write(countingOut);
+        countingOut.flush();
+        metrics.phase(ExcelMetrics.Phase.WRITE, phaseStart);
+    }
+
+    /**
+     * 关闭工作簿，删除流式写出产生的临时文件
+     */
+    private static void close(Workbook wb) throws IOException {
+        wb.close();
+        if (wb instanceof SXSSFWorkbook) {
+            ((SXSSFWorkbook) wb).dispose();
+        }
+    }
+
+    /**
+     * 导出的单元格数，每张表有表标题和列名两行
+     */
+    private static long cells(long rows, int sheetCount, int columns) {
+        return rows * columns + (long) sheetCount * (columns + 1);
+    }
+
+    /**
+     * 创建表标题和列名
+     *
+     * @param wb                工作簿
+     * @param sheet             表
+     * @param headLine          表标题
+     * @param fieldNum          标题合并到第几列
+     * @param alias             列别名
+     * @param cellStyle         表标题格式
+     * @param excelCellHeadType 列名格式
+     * @param widthTracker      列宽记录
+     */
+    private static void insertHead(Workbook wb, Sheet sheet, String headLine, int fieldNum, Map<String, String> alias,
+                                   CellStyle cellStyle, CellStyle excelCellHeadType, ColumnWidthTracker widthTracker) {
         //创建第一行，作为表名
-        XSSFRow row = sheet.createRow(0);
-        XSSFCell cell = row.createCell(0);
+        Row row = sheet.createRow(0);
+        Cell cell = row.createCell(0);
         cell.setCellValue(headLine);
-        //设置表头格式
-        CellStyle cellStyle = setExcelHeadType(wb);
         cell.setCellStyle(cellStyle);
         //设置表头单元格合并
         CellRangeAddress cra = new CellRangeAddress(0, 0, 0, fieldNum);
         sheet.addMergedRegion(cra);
-        // 使用RegionUtil类为合并后的单元格添加边框
-        // 下边框
-        RegionUtil.setBorderBottom(1, cra, sheet);
-        // 左边框
-        RegionUtil.setBorderLeft(1, cra, sheet);
-        // 有边框
-        RegionUtil.setBorderRight(1, cra, sheet);
-        // 上边框
-        RegionUtil.setBorderTop(1, cra, sheet);
-        //设置表列名格式
-        CellStyle excelCellHeadType = setExcelCellHeadType(wb);
+        //合并区域的每个单元格都使用带边框的表头格式，不再用RegionUtil逐个派生新格式
+        for (int column = 1; column <= fieldNum; column++) {
+            row.createCell(column).setCellStyle(cellStyle);
+        }
         //在第一行插入列名
-        insertColumnName(1, sheet, alias, excelCellHeadType);
-        //设置数据单元格格式
-        CellStyle excelCellType = setExcelCellType(wb);
-        //从第2行开始插入数据
-        insertColumnDate(2, pojoList, sheet, alias, excelCellType);
+        insertColumnName(1, sheet, alias, excelCellHeadType, widthTracker);
+    }
+
+    /**
+     * 根据导出参数创建工作簿
+     *
+     * @param config 导出参数
+     * @param alias  列对应的属性，决定每一列的文本写法
+     * @return
+     */
+    private static Workbook createWorkbook(ExportConfig config, Map<String, String> alias) {
+        //标题和列名之后是数据行
+        return createWorkbook(config, alias, null, 2);
+    }
+
+    /**
+     * 根据导出参数创建工作簿
+     *
+     * @param config   导出参数
+     * @param alias    列对应的属性，决定每一列的文本写法
+     * @param template     模板工作簿，为null时创建空的工作簿
+     * @param firstDataRow 第一个数据行，之前的行不算AUTO的样本
+     * @return
+     */
+    private static Workbook createWorkbook(ExportConfig config, Map<String, String> alias, XSSFWorkbook template, int firstDataRow) {
+        if (config.isStreaming()) {
+            ExportConfig.StringStrategy[] strategies = new ExportConfig.StringStrategy[alias.size()];
+            boolean inline = true;
+            int column = 0;
+            for (String property : alias.keySet()) {
+                ExportConfig.StringStrategy strategy = config.getColumnStringStrategies().getOrDefault(property, config.getStringStrategy());
+                inline &= strategy == ExportConfig.StringStrategy.INLINE;
+                strategies[column++] = strategy;
+            }
+            //全部直接写在单元格中时就是SXSSF的默认写法
+            if (inline) {
+                return new SXSSFWorkbook(template, config.getRowAccessWindowSize(), config.isCompressTmpFiles());
+            }
+            return new StringStrategyWorkbook(template, config.getRowAccessWindowSize(), config.isCompressTmpFiles(), strategies, config.getStringSampleSize(), firstDataRow);
+        }
+        return template != null ? template : new XSSFWorkbook();
+    }
+
+    /**
+     * 给列名行的第一个单元格添加批注
+     *
+     * @param wb    工作簿
+     * @param sheet 表
+     */
+    private static void insertComment(Workbook wb, Sheet sheet) {
+        CreationHelper creationHelper = wb.getCreationHelper();
         //设置批注,先获取绘图对象
-        XSSFDrawing p = sheet.createDrawingPatriarch();
-        //获取批注对象(int dx1, int dy1, int dx2, int dy2, short col1, int row1, short col2, int row2) 前四个参数是坐标点,后四个参数是编辑和显示批注时的大小.
-        XSSFComment comment = p.createCellComment(new XSSFClientAnchor(0, 0, 0, 0, 4, 2, 9, 7));
+        Drawing<?> p = sheet.createDrawingPatriarch();
+        //批注的位置，前四个参数是坐标点,后四个参数是编辑和显示批注时的大小.
+        ClientAnchor anchor = creationHelper.createClientAnchor();
+        anchor.setCol1(4);
+        anchor.setRow1(2);
+        anchor.setCol2(9);
+        anchor.setRow2(7);
+        //获取批注对象
+        Comment comment = p.createCellComment(anchor);
         //设置要添加批注的内容
-        XSSFRichTextString rtf = new XSSFRichTextString("现身吧！！！小老弟");
+        RichTextString rtf = creationHelper.createRichTextString("现身吧！！！小老弟");
         comment.setString(rtf);
         comment.setAuthor("小田");
         sheet.getRow(1).getCell(0).setCellComment(comment);
-        //设置列宽自动调整,必须在所有值插入完毕执行
-        Set<Entry<String, String>> entries = alias.entrySet();
-        Integer column = 0;
-        for (Entry<String, String> entry : entries) {
-            //设置和pojo类个数相同的列的列宽自动调整
-            sheet.autoSizeColumn(column++);
-        }
-        // 处理中文不能自动调整列宽的问题
-        setSizeColumn(sheet, fieldNum);
-        //输出表格文件
-        try {
-            wb.write(out);
-        } catch (IOException e) {
-            e.printStackTrace();
-        } finally {
-            wb.close();
-        }
     }
 
     /**
-     * 自适应列宽，中文
+     * 设置列名单元格格式
      *
-     * @param sheet
-     * @param size
+     * @param wb
+     * @return
      */
-    private static void setSizeColumn(XSSFSheet sheet, int size) {
-        for (int columnNum = 0; columnNum < size; columnNum++) {
-            int columnWidth = sheet.getColumnWidth(columnNum) / 256;
-            for (int rowNum = 0; rowNum < sheet.getLastRowNum(); rowNum++) {
-                XSSFRow currentRow;
-                //当前行未被使用过
-                if (sheet.getRow(rowNum) == null) {
-                    currentRow = sheet.createRow(rowNum);
-                } else {
-                    currentRow = sheet.getRow(rowNum);
-                }
-                if (currentRow.getCell(columnNum) != null) {
-                    XSSFCell currentCell = currentRow.getCell(columnNum);
-                    if (currentCell.getCellType() == XSSFCell.CELL_TYPE_STRING) {
-                        int length = currentCell.getStringCellValue().getBytes().length;
-                        if (columnWidth < length) {
-                            columnWidth = length;
-                        }
-                    }
-                }
-            }
-            sheet.setColumnWidth(columnNum, columnWidth * 256);
-        }
+    public static CellStyle setExcelCellType(Workbook wb) {
+        //每次创建新的格式，同一个工作簿中重复使用时通过StyleRegistry获取
+        return new StyleRegistry(wb).get(StyleDescriptor.CELL);
     }
 
     /**
-     * 设置列名单元格格式
+     * 设置日期单元格格式，在数据单元格格式的基础上加上日期格式
+     *
+     * @param wb
+     * @param excelCellType 数据单元格格式
+     * @return
+     */
+    public static CellStyle setExcelDateCellType(Workbook wb, CellStyle excelCellType) {
+        return setExcelDateCellType(wb, excelCellType, DateFormats.DEFAULT_DATE_TIME_PATTERN);
+    }
+
+    /**
+     * 设置指定日期格式的单元格格式
      *
      * @param wb
+     * @param excelCellType 数据单元格格式
+     * @param pattern       日期格式，和DateTimeFormatter相同
      * @return
      */
-    public static CellStyle setExcelCellType(XSSFWorkbook wb) {
-        XSSFCellStyle cellStyle = wb.createCellStyle();
-        //设置水平居中
-        cellStyle.setAlignment(HorizontalAlignment.CENTER);
-        //设置垂直居中
-        cellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        //设置字体
-        XSSFFont font = wb.createFont();
-        //设置字体名称
-        font.setFontName("宋体");
-        //设置字号
-        font.setFontHeightInPoints((short) 11);
-        //设置是否为斜体
-        font.setItalic(false);
-        //设置是否加粗
-        font.setBold(false);
-        //设置字体颜色
-        font.setColor(IndexedColors.BLACK.index);
-        //下边框
-        cellStyle.setBorderBottom(BorderStyle.THIN);
-        //左边框
-        cellStyle.setBorderLeft(BorderStyle.THIN);
-        // 上边框
-        cellStyle.setBorderTop(BorderStyle.THIN);
-        //右边框
-        cellStyle.setBorderRight(BorderStyle.THIN);
-        cellStyle.setFont(font);
+    public static CellStyle setExcelDateCellType(Workbook wb, CellStyle excelCellType, String pattern) {
+        CellStyle cellStyle = wb.createCellStyle();
+        cellStyle.cloneStyleFrom(excelCellType);
+        //日期以数字保存，通过格式显示
+        cellStyle.setDataFormat(wb.createDataFormat().getFormat(DateFormats.toExcelFormat(pattern)));
         return cellStyle;
     }
 
@@ -164,34 +554,9 @@ public class ExcelUtil {
      * @param wb
      * @return
      */
-    public static CellStyle setExcelCellHeadType(XSSFWorkbook wb) {
-        XSSFCellStyle cellStyle = wb.createCellStyle();
-        //设置水平居中
-        cellStyle.setAlignment(HorizontalAlignment.CENTER);
-        //设置垂直居中
-        cellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        //设置字体
-        XSSFFont font = wb.createFont();
-        //设置字体名称
-        font.setFontName("Times New Roman");
-        //设置字号
-        font.setFontHeightInPoints((short) 15);
-        //设置是否为斜体
-        font.setItalic(false);
-        //设置是否加粗
-        font.setBold(true);
-        //设置字体颜色
-        font.setColor(IndexedColors.DARK_RED.index);
-        //下边框
-        cellStyle.setBorderBottom(BorderStyle.THIN);
-        //左边框
-        cellStyle.setBorderLeft(BorderStyle.THIN);
-        // 上边框
-        cellStyle.setBorderTop(BorderStyle.THIN);
-        //右边框
-        cellStyle.setBorderRight(BorderStyle.THIN);
-        cellStyle.setFont(font);
-        return cellStyle;
+    public static CellStyle setExcelCellHeadType(Workbook wb) {
+        //每次创建新的格式，同一个工作簿中重复使用时通过StyleRegistry获取
+        return new StyleRegistry(wb).get(StyleDescriptor.COLUMN_NAME);
     }
 
     /**
@@ -199,34 +564,9 @@ public class ExcelUtil {
      *
      * @return
      */
-    public static CellStyle setExcelHeadType(XSSFWorkbook wb) {
-        XSSFCellStyle cellStyle = wb.createCellStyle();
-        //设置水平居中
-        cellStyle.setAlignment(HorizontalAlignment.CENTER);
-        //设置垂直居中
-        cellStyle.setVerticalAlignment(VerticalAlignment.CENTER);
-        //设置字体
-        XSSFFont font = wb.createFont();
-        //设置字体名称
-        font.setFontName("宋体");
-        //设置字号
-        font.setFontHeightInPoints((short) 20);
-        //设置是否为斜体
-        font.setItalic(false);
-        //设置是否加粗
-        font.setBold(true);
-        //设置字体颜色
-        font.setColor(IndexedColors.BLACK.index);
-        //下边框
-        cellStyle.setBorderBottom(BorderStyle.THIN);
-        //左边框
-        cellStyle.setBorderLeft(BorderStyle.THIN);
-        // 上边框
-        cellStyle.setBorderTop(BorderStyle.THIN);
-        //右边框
-        cellStyle.setBorderRight(BorderStyle.THIN);
-        cellStyle.setFont(font);
-        return cellStyle;
+    public static CellStyle setExcelHeadType(Workbook wb) {
+        //每次创建新的格式，同一个工作簿中重复使用时通过StyleRegistry获取
+        return new StyleRegistry(wb).get(StyleDescriptor.TITLE);
     }
 
     /**
@@ -270,14 +610,41 @@ public class ExcelUtil {
 
     /**
      * 获得linkedhashmap
+     * <p>
+     * 类带有@ExcelColumn注解时按注解生成列名和列顺序，只包括带注解的属性，
+     * 编译时生成了映射器的直接从映射器读取；没有注解时列名为属性名
      *
      * @param clazz
-     * @return
+     * @return Map<"属性名","列名">
      */
     public static LinkedHashMap<String, String> getAlias(Class<?> clazz) {
-        //获取类的属性作为列名
         LinkedHashMap<String, String> alias = new LinkedHashMap<String, String>();
+        ExcelMapper<?> mapper = PojoMapping.mapper(clazz);
+        if (mapper != null) {
+            String[] properties = mapper.properties();
+            String[] columnNames = mapper.columnNames();
+            for (int i = 0; i < properties.length; i++) {
+                alias.put(properties[i], columnNames[i]);
+            }
+            return alias;
+        }
         Field[] fields = clazz.getDeclaredFields();
+        //没有生成映射器时按注解反射读取，按order排列，相同时保持声明顺序
+        List<Field> annotated = new ArrayList<Field>();
+        for (Field field : fields) {
+            if (field.isAnnotationPresent(ExcelColumn.class)) {
+                annotated.add(field);
+            }
+        }
+        if (!annotated.isEmpty()) {
+            annotated.sort(Comparator.comparingInt(field -> field.getAnnotation(ExcelColumn.class).order()));
+            for (Field field : annotated) {
+                String name = field.getAnnotation(ExcelColumn.class).name();
+                alias.put(field.getName(), name.isEmpty() ? field.getName() : name);
+            }
+            return alias;
+        }
+        //获取类的属性作为列名
         //创建长度等于属性长度的 数组
         String[] name = new String[fields.length];
         //暴力反射所有字段
@@ -316,59 +683,146 @@ public class ExcelUtil {
     /**
      * 此方法作用是创建表头的列名
      *
-     * @param alias  要创建的表的列名与实体类的属性名的映射集合
-     * @param rowNum 指定行创建列名
+     * @param alias        要创建的表的列名与实体类的属性名的映射集合
+     * @param rowNum       指定行创建列名
+     * @param widthTracker 列宽记录
      * @return
      */
-    private static void insertColumnName(int rowNum, XSSFSheet sheet, Map<String, String> alias, CellStyle excelCellHeadType) {
-        XSSFRow row = sheet.createRow(rowNum);
+    private static void insertColumnName(int rowNum, Sheet sheet, Map<String, String> alias, CellStyle excelCellHeadType, ColumnWidthTracker widthTracker) {
+        Row row = sheet.createRow(rowNum);
         //列的数量
         int columnCount = 0;
         //遍历映射集合
         Set<Entry<String, String>> entrySet = alias.entrySet();
         for (Entry<String, String> entry : entrySet) {
             //创建第一行的第columnCount个格子
-            XSSFCell cell = row.createCell(columnCount++);
+            Cell cell = row.createCell(columnCount);
             //将此格子的值设置为alias中的键名
-            cell.setCellValue(isNull(entry.getValue()).toString());
+            String columnName = isNull(entry.getValue()).toString();
+            cell.setCellValue(columnName);
             cell.setCellStyle(excelCellHeadType);
+            //列名字号比数据大，宽度按1.5倍计算
+            widthTracker.track(columnCount++, (ColumnWidthTracker.displayWidth(columnName) * 3 + 1) / 2);
         }
     }
 
     /**
      * 从指定行开始给表格中插入数据
      *
-     * @param beginRowNum 开始行
-     * @param models      对象数组
-     * @param sheet       表
-     * @param alias       列别名
+     * @param beginRowNum   开始行
+     * @param models        对象数组
+     * @param sheet         表
+     * @param alias         列别名
+     * @param datePatterns  日期属性的格式
+     * @param styles        格式缓存
+     * @param widthTracker  列宽记录
      * @throws Exception
      */
-    private static <T> void insertColumnDate(int beginRowNum, List<T> models, XSSFSheet sheet, Map<String, String> alias, CellStyle excelCellType) throws Exception {
+    private static <T> void insertColumnDate(int beginRowNum, List<T> models, Sheet sheet, Map<String, String> alias, Map<String, String> datePatterns,
+                                             StyleRegistry styles, ColumnWidthTracker widthTracker) throws Exception {
+        //映射计划按类缓存，列表中的对象类型一般都相同
+        PojoMapping<?> mapping = null;
+        CellStyle[] columnStyles = null;
         for (T model : models) {
+            if (mapping == null || mapping.getClazz() != model.getClass()) {
+                mapping = PojoMapping.of(model.getClass(), alias.keySet(), datePatterns);
+                mapping.checkReadable();
+                columnStyles = columnStyles(styles, mapping.getAccessors());
+            }
             //创建新的一行，先创建在++
-            XSSFRow rowTemp = sheet.createRow(beginRowNum++);
-            logger.info("创建了第:{}行", beginRowNum);
-            //获取列的迭代
-            Set<Entry<String, String>> entrySet = alias.entrySet();
-            //从第0个格子开始创建
-            int columnNum = 0;
-            for (Entry<String, String> entry : entrySet) {
-                //获取当前属性的类型，如果是Date类型就进行格式化
-                String property = BeanUtils.getProperty(model, entry.getKey());
-                Field declaredField = model.getClass().getDeclaredField(entry.getKey());
-                String typeName = declaredField.getGenericType().getTypeName();
-                if ("java.util.Date".equals(typeName) && property != null) {
-                    SimpleDateFormat format = new SimpleDateFormat("E MMM dd hh:mm:ss z yyyy", Locale.US);
-                    Date parse = format.parse(property);
-                    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd hh:mm:ss");
-                    property = simpleDateFormat.format(parse);
+            insertRow(sheet.createRow(beginRowNum++), mapping.getAccessors(), model, columnStyles, widthTracker);
+        }
+    }
+
+    /**
+     * 把一个对象写入一行
+     *
+     * @param row           行
+     * @param accessors     按列顺序排列的属性读写器
+     * @param model         对象
+     * @param columnStyles  按列顺序排列的单元格格式
+     * @param widthTracker  列宽记录
+     */
+    private static void insertRow(Row row, PropertyAccessor[] accessors, Object model, CellStyle[] columnStyles,
+                                  ColumnWidthTracker widthTracker) {
+        //从第0个格子开始创建
+        for (int columnNum = 0; columnNum < accessors.length; columnNum++) {
+            PropertyAccessor accessor = accessors[columnNum];
+            //创建一个格子
+            Cell cell = row.createCell(columnNum);
+            cell.setCellStyle(columnStyles[columnNum]);
+            setCellValue(cell, accessor, accessor.get(model), widthTracker);
+        }
+    }
+
+    /**
+     * 按属性类型写入单元格，数字、布尔和日期写成对应的单元格类型，其他写成文本
+     *
+     * @param cell          单元格
+     * @param accessor      属性读写器
+     * @param value         属性值
+     * @param widthTracker  列宽记录
+     */
+    private static void setCellValue(Cell cell, PropertyAccessor accessor, Object value, ColumnWidthTracker widthTracker) {
+        if (value == null) {
+            //空值保持为空单元格
+            return;
+        }
+        int column = cell.getColumnIndex();
+        switch (accessor.getValueType()) {
+            case LONG:
+            case INTEGER:
+            case SHORT:
+            case BYTE:
+                long longValue = ((Number) value).longValue();
+                if (longValue > MAX_EXACT_LONG || longValue < -MAX_EXACT_LONG) {
+                    cell.setCellValue(value.toString());
+                } else {
+                    cell.setCellValue(longValue);
                 }
-                //创建一个格子
-                XSSFCell cell = rowTemp.createCell(columnNum++);
-                cell.setCellValue(property);
-                cell.setCellStyle(excelCellType);
-            }
+                widthTracker.trackLong(column, longValue);
+                break;
+            case DOUBLE:
+            case FLOAT:
+                double doubleValue = ((Number) value).doubleValue();
+                cell.setCellValue(doubleValue);
+                widthTracker.trackText(column, NumberToTextConverter.toText(doubleValue));
+                break;
+            case BIG_DECIMAL:
+                BigDecimal decimal = (BigDecimal) value;
+                //超过15位有效数字的double会丢失精度
+                if (decimal.precision() > 15) {
+                    cell.setCellValue(decimal.toPlainString());
+                } else {
+                    cell.setCellValue(decimal.doubleValue());
+                }
+                //整数位数+小数位数+小数点
+                widthTracker.track(column, Math.max(decimal.precision() - decimal.scale(), 1) + Math.max(decimal.scale(), 0) + 2);
+                break;
+            case BIG_INTEGER:
+                BigInteger integer = (BigInteger) value;
+                if (integer.bitLength() > 53) {
+                    cell.setCellValue(integer.toString());
+                } else {
+                    cell.setCellValue(integer.doubleValue());
+                }
+                widthTracker.track(column, (int) Math.ceil(integer.bitLength() * 0.30103) + 1);
+                break;
+            case BOOLEAN:
+                cell.setCellValue((Boolean) value);
+                widthTracker.track(column, 5);
+                break;
+            case DATE:
+                //Date和java.time类型都直接换算成Excel的日期数字
+                cell.setCellValue(accessor.toExcelDate(value));
+                //显示宽度和格式长度基本一致
+                widthTracker.track(column, accessor.getPattern().length() + 1);
+                break;
+            default:
+                String text = accessor.format(value);
+                cell.setCellValue(text);
+                widthTracker.trackText(column, text);
+                break;
         }
     }
 
@@ -394,20 +848,170 @@ public class ExcelUtil {
      * @throws SecurityException
      */
     public static <T> List<T> excel2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias) throws IOException {
-        XSSFWorkbook xh = new XSSFWorkbook(inputStream);
+        return excel2Pojo(inputStream, clazz, alias, ImportConfig.defaults());
+    }
+
+    /**
+     * 将excel表转换成指定类型的对象数组，config打开parallel时改用流水线导入，解析失败时抛出IOException
+     * <p>
+     * config指定了projection、rowOffset或rowLimit时使用流式读取，不需要的单元格不生成值，读够行数后停止。
+     * config设置了cache时先把输入流拷贝到临时文件并计算摘要，命中缓存时直接返回新生成的对象。
+     *
+     * @param clazz  类型
+     * @param alias  列别名,格式要求：Map<"列名","类属性名">
+     * @param config 导入参数
+     * @return
+     * @throws IOException
+     */
+    public static <T> List<T> excel2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config) throws IOException {
+        if (config.getCache() != null) {
+            Path tempFile = Files.createTempFile("excel2Pojo", ".tmp");
+            try {
+                String hash = ImportCache.copyAndHash(inputStream, tempFile);
+                return config.getCache().get(hash, clazz, alias, config, () -> fileToList(tempFile, false, clazz, alias, config));
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        if (config.isParallel() || config.isPartialRead()) {
+            //并行转换和部分读取使用流式读取，不生成整个工作簿
+            List<T> pojoList = new ArrayList<>();
+            excel2Pojo(inputStream, clazz, alias, config, pojoList::add);
+            return pojoList;
+        }
+        //xls通过事件模型流式读取，不生成HSSFWorkbook
+        InputStream in = FileMagic.prepareToCheckMagic(inputStream);
+        if (FileMagic.valueOf(in) == FileMagic.OLE2) {
+            List<T> pojoList = new ArrayList<>();
+            excel2Pojo(in, clazz, alias, config, pojoList::add);
+            return pojoList;
+        }
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        long phaseStart = metrics.mark();
+        XSSFWorkbook xh = new XSSFWorkbook(metrics.wrap(in));
+        metrics.phase(ExcelMetrics.Phase.OPEN, phaseStart);
         try {
+            return sheetToList(xh, clazz, alias, config, metrics);
+        } finally {
+            xh.close();
+        }
+    }
+
+    /**
+     * 将本地的excel文件转换成指定类型的对象数组
+     *
+     * @param file  excel文件
+     * @param clazz 类型
+     * @param alias 列别名,格式要求：Map<"列名","类属性名">
+     * @return
+     * @throws IOException
+     */
+    public static <T> List<T> excel2Pojo(Path file, Class<T> clazz, LinkedHashMap<String, String> alias) throws IOException {
+        return excel2Pojo(file, clazz, alias, ImportConfig.defaults());
+    }
+
+    /**
+     * 将本地的excel文件转换成指定类型的对象数组
+     *
+     * @param file  excel文件
+     * @param clazz 类型
+     * @param alias 列别名,格式要求：Map<"列名","类属性名">
+     * @return
+     * @throws IOException
+     */
+    public static <T> List<T> excel2Pojo(File file, Class<T> clazz, LinkedHashMap<String, String> alias) throws IOException {
+        return excel2Pojo(file.toPath(), clazz, alias, ImportConfig.defaults());
+    }
+
+    /**
+     * 将本地的excel文件转换成指定类型的对象数组，和输入流版本的区别是不再把文件拷贝到内存或临时文件
+     * <p>
+     * xlsx通过OPCPackage按文件只读打开，zip中的条目在读取时才解压；xls、parallel、部分读取和使用行索引时使用流式读取。
+     * config设置了cache时先按文件内容的摘要查找缓存。
+     *
+     * @param file   excel文件
+     * @param clazz  类型
+     * @param alias  列别名,格式要求：Map<"列名","类属性名">
+     * @param config 导入参数
+     * @return
+     * @throws IOException
+     */
+    public static <T> List<T> excel2Pojo(Path file, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config) throws IOException {
+        if (config.getCache() != null) {
+            return config.getCache().get(ImportCache.hash(file), clazz, alias, config, () -> fileToList(file, true, clazz, alias, config));
+        }
+        return fileToList(file, true, clazz, alias, config);
+    }
+
+    /**
+     * 把本地的excel文件转换成对象数组
+     *
+     * @param file    excel文件
+     * @param indexed 是否可以使用文件旁边的行索引，读取临时文件时为false
+     * @param clazz   类型
+     * @param alias   列别名,格式要求：Map<"列名","类属性名">
+     * @param config  导入参数
+     * @return 解析xlsx工作簿失败时返回null
+     * @throws IOException
+     */
+    private static <T> List<T> fileToList(Path file, boolean indexed, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config) throws IOException {
+        FileMagic magic = fileMagic(file);
+        boolean useIndex = indexed && config.getIndexInterval() > 0;
+        if (config.isParallel() || config.isPartialRead() || useIndex || magic == FileMagic.OLE2) {
+            MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+            List<T> pojoList = new ArrayList<>();
+            readWorkbook(file, indexed, config, metrics, metrics.mark(), streamTask(clazz, alias, config, pojoList::add, metrics));
+            return pojoList;
+        }
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        long phaseStart = metrics.mark();
+        metrics.addBytes(Files.size(file));
+        OPCPackage pkg = openPackage(file, magic);
+        try {
+            XSSFWorkbook xh = new XSSFWorkbook(pkg);
+            metrics.phase(ExcelMetrics.Phase.OPEN, phaseStart);
+            return sheetToList(xh, clazz, alias, config, metrics);
+        } finally {
+            //只读打开的文件不需要保存
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 把工作簿的第一张表转换成对象数组
+     *
+     * @param xh      工作簿
+     * @param clazz   类型
+     * @param alias   列别名,格式要求：Map<"列名","类属性名">
+     * @param config  导入参数
+     * @param metrics 统计
+     * @return 转换失败时返回null
+     */
+    private static <T> List<T> sheetToList(XSSFWorkbook xh, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, MetricsRecorder metrics) {
+        try {
+            long phaseStart = metrics.mark();
             //获取到第一张sheet表
             XSSFSheet sheet = xh.getSheetAt(0);
             //生成属性和列对应关系的map，Map<类属性名，对应一行的第几列>
             Map<String, Integer> propertyMap = generateColumnPropertyMap(sheet, alias);
             //根据指定的映射关系进行转换
-            List<T> pojoList = generateList(sheet, propertyMap, clazz);
+            PojoMapping<T> mapping = PojoMapping.of(clazz, alias.values(), config.getDatePatterns());
+            List<T> pojoList = generateList(sheet, propertyMap, mapping);
+            metrics.phase(ExcelMetrics.Phase.PARSE, phaseStart);
+            if (metrics.isEnabled()) {
+                int columns = 0;
+                for (String property : propertyMap.keySet()) {
+                    PropertyAccessor accessor = mapping.getAccessor(property);
+                    if (accessor != null && accessor.isWritable()) {
+                        columns++;
+                    }
+                }
+                metrics.finish(pojoList.size(), (long) pojoList.size() * columns);
+            }
             return pojoList;
         } catch (Exception e) {
             e.printStackTrace();
             return null;
-        } finally {
-            xh.close();
         }
     }
 
@@ -449,13 +1053,10 @@ public class ExcelUtil {
      *
      * @param sheet       表
      * @param propertyMap 属性映射关系Map<"属性名",一行第几列>
-     * @param clazz       类类型
+     * @param mapping     类的映射计划
      * @return
-     * @throws InstantiationException
-     * @throws IllegalAccessException
-     * @throws InvocationTargetException
      */
-    private static <T> List<T> generateList(XSSFSheet sheet, Map<String, Integer> propertyMap, Class<T> clazz) throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    private static <T> List<T> generateList(XSSFSheet sheet, Map<String, Integer> propertyMap, PojoMapping<T> mapping) {
         //对象数组
         List<T> pojoList = new ArrayList<>();
         for (Row row : sheet) {
@@ -463,36 +1064,41 @@ public class ExcelUtil {
             if (row.getRowNum() < 2) {
                 continue;
             }
-            //反射创建一个T对象
-            T instance = clazz.newInstance();
+            //创建一个T对象
+            T instance = mapping.newInstance();
             //对映射好关系的map进行遍历
             Set<Entry<String, Integer>> entrySet = propertyMap.entrySet();
             for (Entry<String, Integer> entry : entrySet) {
+                //类中没有这个属性，或者列名不在别名中
+                PropertyAccessor accessor = mapping.getAccessor(entry.getKey());
+                if (accessor == null || !accessor.isWritable()) {
+                    continue;
+                }
                 //获取此行指定列的值,即为属性对应的值（map中的value存的就是这个属性在那个列），获取的值可能是空
                 String property = null;
                 try {
                     //处理数字格式问题，输入0，POI会当成double来处理成0.0，
                     Cell cell = row.getCell(entry.getValue());
-                    cell.setCellType(Cell.CELL_TYPE_STRING);
-                    property = cell.getStringCellValue();
+                    //日期单元格直接取日期，不经过文本
+                    if (cell.getCellType() == Cell.CELL_TYPE_NUMERIC && accessor.getValueType() == PropertyAccessor.ValueType.DATE) {
+                        accessor.set(instance, accessor.fromExcelDate(cell.getNumericCellValue()));
+                        continue;
+                    }
+                    if (cell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
+                        //数字按Excel显示的文本转换，整数不带.0
+                        property = NumberToTextConverter.toText(cell.getNumericCellValue());
+                    } else {
+                        //已经是字符串的不再转换，SXSSF写出的inlineStr单元格转换后值会丢失
+                        if (cell.getCellType() != Cell.CELL_TYPE_STRING) {
+                            cell.setCellType(Cell.CELL_TYPE_STRING);
+                        }
+                        property = cell.getStringCellValue();
+                    }
                     if ("".equals(property)) {
                         property = null;
                     }
-                    Field field = clazz.getDeclaredField(entry.getKey());
-                    String typeName = field.getGenericType().getTypeName();
-                    //1、日期类型的处理
-                    if (property != null && "java.util.Date".equals(typeName)) {
-                        //时间格式化
-                        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd hh:mm:ss");
-                        Date parse = simpleDateFormat.parse(property);
-                        //保存属性
-                        BeanUtils.setProperty(instance, entry.getKey(), parse);
-                        //跳出循环
-                        continue;
-                    }
                     if (property != null) {
-                        //java工具类，把参数放在指定类的指定属性中（将map赋值给一个类使用popul方法）
-                        BeanUtils.setProperty(instance, entry.getKey(), property);
+                        accessor.setText(instance, property);
                     }
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -504,7 +1110,516 @@ public class ExcelUtil {
     }
 
     /**
-     * 将excel表转换成指定类型的对象数组，列名即作为对象属性
+     * 流式读取excel表，每转换出一个对象就交给consumer，不会把整个表格加载到内存中
+     *
+     * @param inputStream 输入流
+     * @param clazz       类型
+     * @param alias       列别名,格式要求：Map<"列名","类属性名">
+     * @param consumer    接收转换好的对象
+     * @throws IOException
+     */
+    public static <T> void excel2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias, Consumer<? super T> consumer) throws IOException {
+        excel2Pojo(inputStream, clazz, alias, ImportConfig.defaults(), consumer);
+    }
+
+    /**
+     * 流式读取excel表，每转换出一个对象就交给consumer，不会把整个表格加载到内存中
+     * <p>
+     * 按文件头自动识别xlsx和xls，xls通过HSSF事件模型读取。
+     *
+     * @param inputStream 输入流
+     * @param clazz       类型
+     * @param alias       列别名,格式要求：Map<"列名","类属性名">
+     * @param config      导入参数
+     * @param consumer    接收转换好的对象
+     * @throws IOException
+     */
+    public static <T> void excel2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, Consumer<? super T> consumer) throws IOException {
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        readWorkbook(inputStream, config, metrics, streamTask(clazz, alias, config, consumer, metrics));
+    }
+
+    /**
+     * 流式读取本地的excel文件，每转换出一个对象就交给consumer，直接按文件打开，不拷贝到临时文件
+     *
+     * @param file     excel文件
+     * @param clazz    类型
+     * @param alias    列别名,格式要求：Map<"列名","类属性名">
+     * @param config   导入参数
+     * @param consumer 接收转换好的对象
+     * @throws IOException
+     */
+    public static <T> void excel2Pojo(Path file, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, Consumer<? super T> consumer) throws IOException {
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        readWorkbook(file, true, config, metrics, metrics.mark(), streamTask(clazz, alias, config, consumer, metrics));
+    }
+
+    /**
+     * 逐个转换对象的读取操作
+     */
+    private static <T> SheetTask streamTask(Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, Consumer<? super T> consumer, MetricsRecorder metrics) {
+        return sheet -> {
+            if (config.isParallel()) {
+                parsePipelined(sheet, clazz, alias, config, config.getChunkSize(), chunk -> chunk.forEach(consumer), metrics);
+                return;
+            }
+            long phaseStart = metrics.mark();
+            RowPojoMapper<T> mapper = new RowPojoMapper<>(clazz, alias, config, consumer);
+            sheet.read(mapper);
+            metrics.phase(ExcelMetrics.Phase.PARSE, phaseStart);
+            metrics.finish(mapper.getRows(), mapper.getRows() * mapper.getMappedColumns());
+        };
+    }
+
+    /**
+     * 流式读取excel表，按批把对象交给batchConsumer，适合分批写入数据库
+     * <p>
+     * 解析在后台线程进行，batchConsumer在调用线程上执行，处理一批的同时后台继续解析下一批。
+     * 等待处理的批数达到ImportConfig.batchQueueCapacity时解析暂停，内存中的对象数有上限。
+     *
+     * @param inputStream   输入流
+     * @param clazz         类型
+     * @param alias         列别名,格式要求：Map<"列名","类属性名">
+     * @param batchSize     每批的对象数，最后一批可能不足
+     * @param batchConsumer 接收每一批对象，每批是新的List，可以直接保存
+     * @throws IOException
+     */
+    public static <T> void excel2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias, int batchSize, Consumer<? super List<T>> batchConsumer) throws IOException {
+        excel2Pojo(inputStream, clazz, alias, ImportConfig.defaults(), batchSize, batchConsumer);
+    }
+
+    /**
+     * 流式读取excel表，按批把对象交给batchConsumer
+     *
+     * @param inputStream   输入流
+     * @param clazz         类型
+     * @param alias         列别名,格式要求：Map<"列名","类属性名">
+     * @param config        导入参数
+     * @param batchSize     每批的对象数，最后一批可能不足
+     * @param batchConsumer 接收每一批对象，在调用线程上执行
+     * @throws IOException
+     */
+    public static <T> void excel2Pojo(InputStream inputStream, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, int batchSize, Consumer<? super List<T>> batchConsumer) throws IOException {
+        BatchPipeline.checkBatchSize(batchSize);
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        readWorkbook(inputStream, config, metrics, batchTask(clazz, alias, config, batchSize, batchConsumer, metrics));
+    }
+
+    /**
+     * 流式读取本地的excel文件，按批把对象交给batchConsumer，直接按文件打开，不拷贝到临时文件
+     *
+     * @param file          excel文件
+     * @param clazz         类型
+     * @param alias         列别名,格式要求：Map<"列名","类属性名">
+     * @param config        导入参数
+     * @param batchSize     每批的对象数，最后一批可能不足
+     * @param batchConsumer 接收每一批对象，在调用线程上执行
+     * @throws IOException
+     */
+    public static <T> void excel2Pojo(Path file, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, int batchSize, Consumer<? super List<T>> batchConsumer) throws IOException {
+        BatchPipeline.checkBatchSize(batchSize);
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        readWorkbook(file, true, config, metrics, metrics.mark(), batchTask(clazz, alias, config, batchSize, batchConsumer, metrics));
+    }
+
+    /**
+     * 按批转换对象的读取操作
+     */
+    private static <T> SheetTask batchTask(Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, int batchSize,
+                                           Consumer<? super List<T>> batchConsumer, MetricsRecorder metrics) {
+        return sheet -> {
+            if (config.isParallel()) {
+                //并行转换时每一块就是一批
+                parsePipelined(sheet, clazz, alias, config, batchSize, batchConsumer, metrics);
+                return;
+            }
+            long phaseStart = metrics.mark();
+            List<RowPojoMapper<T>> mappers = new ArrayList<>(1);
+            BatchPipeline.<T>run("excel2Pojo-parser", sink -> {
+                RowPojoMapper<T> mapper = new RowPojoMapper<>(clazz, alias, config, sink);
+                mappers.add(mapper);
+                sheet.read(mapper);
+            }, batchSize, config.getBatchQueueCapacity(), batchConsumer);
+            //解析和消费重叠进行，PARSE是两者合计经过的时间
+            metrics.phase(ExcelMetrics.Phase.PARSE, phaseStart);
+            RowPojoMapper<T> mapper = mappers.get(0);
+            metrics.finish(mapper.getRows(), mapper.getRows() * mapper.getMappedColumns());
+        };
+    }
+
+    /**
+     * 按列读取excel表用于统计分析，不创建对象
+     * <p>
+     * 属性类型决定列的类型：整数（包括BigInteger）、布尔和日期保存为long[]，小数保存为double[]，其他按字典编码成int[]，
+     * 每列带空值位图。BigInteger超出long范围的单元格记为空值；BigDecimal按double保存，
+     * 超过15位有效数字的部分会丢失，需要精确值时改用对象导入或者把属性声明为String。alias中只放需要的列可以进一步减少内存，projection、rowOffset和rowLimit同样有效。按顺序单线程读取，不使用parallel参数。
+     *
+     * @param inputStream 输入流
+     * @param clazz       类型，只用来确定属性类型和日期格式
+     * @param alias       列别名,格式要求：Map<"列名","类属性名">
+     * @param config      导入参数
+     * @return
+     * @throws IOException
+     */
+    public static ColumnarResult excel2Columns(InputStream inputStream, Class<?> clazz, LinkedHashMap<String, String> alias, ImportConfig config) throws IOException {
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        ColumnarCollector collector = new ColumnarCollector(clazz, alias, config);
+        readWorkbook(inputStream, config, metrics, columnTask(collector, metrics));
+        return collector.build();
+    }
+
+    /**
+     * 按列读取本地的excel文件，直接按文件打开，不拷贝到临时文件
+     *
+     * @param file   excel文件
+     * @param clazz  类型，只用来确定属性类型和日期格式
+     * @param alias  列别名,格式要求：Map<"列名","类属性名">
+     * @param config 导入参数
+     * @return
+     * @throws IOException
+     */
+    public static ColumnarResult excel2Columns(Path file, Class<?> clazz, LinkedHashMap<String, String> alias, ImportConfig config) throws IOException {
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        ColumnarCollector collector = new ColumnarCollector(clazz, alias, config);
+        readWorkbook(file, true, config, metrics, metrics.mark(), columnTask(collector, metrics));
+        return collector.build();
+    }
+
+    /**
+     * 按列收集的读取操作
+     */
+    private static SheetTask columnTask(ColumnarCollector collector, MetricsRecorder metrics) {
+        return sheet -> {
+            long phaseStart = metrics.mark();
+            sheet.read(collector);
+            metrics.phase(ExcelMetrics.Phase.PARSE, phaseStart);
+            metrics.finish(collector.getRows(), (long) collector.getRows() * collector.getMappedColumns());
+        };
+    }
+
+    /**
+     * 同时导入一个工作簿中的多张表，每张表按自己的SheetMapping转换成对象
+     *
+     * @param inputStream 输入流
+     * @param sheets      每张表的映射
+     * @param config      导入参数
+     * @return 每个映射的导入结果
+     * @throws IOException
+     */
+    public static SheetResults excel2Pojo(InputStream inputStream, Collection<? extends SheetMapping<?>> sheets, ImportConfig config) throws IOException {
+        Path tempFile = Files.createTempFile("excel2Pojo", ".tmp");
+        try {
+            Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return excel2Pojo(tempFile, sheets, config);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 同时导入本地excel文件中的多张表，每张表按自己的SheetMapping转换成对象
+     * <p>
+     * 文件只打开一次，xlsx的共享字符串表也只读一次，各张表在ImportConfig.sheetExecutor中同时流式解析，
+     * 每张表有自己的RowPojoMapper。projection、rowOffset、rowLimit和parallel对每张表分别生效，
+     * 统计监听器每张表收到一次，可能在不同线程上同时调用；不使用行索引和cache。
+     * 有表解析失败时等其他表结束后抛出第一个异常。
+     *
+     * @param file   excel文件
+     * @param sheets 每张表的映射
+     * @param config 导入参数
+     * @return 每个映射的导入结果
+     * @throws IOException
+     */
+    public static SheetResults excel2Pojo(Path file, Collection<? extends SheetMapping<?>> sheets, ImportConfig config) throws IOException {
+        List<SheetMapping<?>> mappings = new ArrayList<>(sheets);
+        if (mappings.isEmpty()) {
+            return new SheetResults();
+        }
+        try {
+            FileMagic magic = fileMagic(file);
+            if (magic == FileMagic.OLE2) {
+                //每张表各自按文件打开，互不影响
+                List<String> names = XlsSheetParser.sheetNames(file.toFile());
+                List<SheetReader> readers = new ArrayList<>(mappings.size());
+                for (SheetMapping<?> mapping : mappings) {
+                    int index = mapping.indexIn(names);
+                    readers.add(callback -> XlsSheetParser.parse(file.toFile(), index, callback));
+                }
+                return readSheets(mappings, readers, config);
+            }
+            OPCPackage pkg = openPackage(file, magic);
+            List<InputStream> streams = new ArrayList<>(mappings.size());
+            try (SharedStrings sharedStrings = SharedStrings.open(pkg, config)) {
+                //表的xml流在调用线程上打开，工作线程只读取各自的流
+                List<String> names = XlsxSheetParser.sheetNames(pkg);
+                List<SheetReader> readers = new ArrayList<>(mappings.size());
+                for (SheetMapping<?> mapping : mappings) {
+                    InputStream sheet = XlsxSheetParser.openSheet(pkg, mapping.indexIn(names));
+                    streams.add(sheet);
+                    readers.add(callback -> XlsxSheetParser.parse(sheet, sharedStrings, callback));
+                }
+                return readSheets(mappings, readers, config);
+            } finally {
+                for (InputStream sheet : streams) {
+                    sheet.close();
+                }
+                //只读打开的文件不需要保存
+                pkg.revert();
+            }
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("解析excel失败", e);
+        }
+    }
+
+    /**
+     * 在线程池中同时读取各张表，等所有表结束后返回
+     *
+     * @param sheets  每张表的映射
+     * @param readers 和sheets一一对应的读取器
+     * @param config  导入参数
+     * @return
+     * @throws IOException 有表失败时抛出第一个异常，其他异常作为suppressed
+     */
+    private static SheetResults readSheets(List<SheetMapping<?>> sheets, List<SheetReader> readers, ImportConfig config) throws IOException {
+        Executor executor = config.getSheetExecutor();
+        ExecutorService ownExecutor = null;
+        if (executor == null) {
+            int threads = Math.min(sheets.size(), Runtime.getRuntime().availableProcessors());
+            ownExecutor = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "excel2Pojo-sheet");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor = ownExecutor;
+        }
+        List<FutureTask<List<?>>> tasks = new ArrayList<>(sheets.size());
+        Exception failure = null;
+        try {
+            for (int i = 0; i < sheets.size(); i++) {
+                SheetMapping<?> sheet = sheets.get(i);
+                SheetReader reader = readers.get(i);
+                FutureTask<List<?>> task = new FutureTask<>(() -> readSheet(sheet, reader, config));
+                executor.execute(task);
+                tasks.add(task);
+            }
+        } catch (RuntimeException e) {
+            //线程池拒绝时已经提交的表仍要等待结束，之后才能关闭文件
+            failure = e;
+        }
+        SheetResults results = new SheetResults();
+        boolean interrupted = false;
+        try {
+            for (int i = 0; i < tasks.size(); i++) {
+                while (true) {
+                    try {
+                        results.put(sheets.get(i), tasks.get(i).get());
+                        break;
+                    } catch (InterruptedException e) {
+                        //工作线程还在读取文件，不能提前返回
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        IOException error = new IOException("解析sheet失败:" + sheets.get(i), e.getCause());
+                        if (failure == null) {
+                            failure = error;
+                        } else {
+                            failure.addSuppressed(error);
+                        }
+                        break;
+                    }
+                }
+            }
+        } finally {
+            if (ownExecutor != null) {
+                ownExecutor.shutdown();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+        return results;
+    }
+
+    /**
+     * 流式读取一张表，和单张表的流式导入相同
+     */
+    private static <T> List<T> readSheet(SheetMapping<T> sheet, SheetReader reader, ImportConfig config) throws Exception {
+        MetricsRecorder metrics = MetricsRecorder.start(config.getMetricsListener(), ExcelMetrics.Operation.IMPORT);
+        List<T> pojoList = new ArrayList<>();
+        streamTask(sheet.getClazz(), sheet.getAlias(), config, pojoList::add, metrics).run(reader);
+        return pojoList;
+    }
+
+    /**
+     * 流水线导入：后台线程解析并拷贝原始行，线程池按块转换，调用线程按行的顺序接收每一块
+     *
+     * @param sheet         第一张表
+     * @param clazz         类型
+     * @param alias         列别名,格式要求：Map<"列名","类属性名">
+     * @param config        导入参数
+     * @param chunkSize     每块的行数
+     * @param chunkConsumer 接收每一块转换好的对象，在调用线程上执行
+     * @param metrics       统计
+     * @throws Exception
+     */
+    private static <T> void parsePipelined(SheetReader sheet, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config,
+                                           int chunkSize, Consumer<? super List<T>> chunkConsumer, MetricsRecorder metrics) throws Exception {
+        long phaseStart = metrics.mark();
+        ForkJoinPool pool = config.getForkJoinPool() != null ? config.getForkJoinPool() : ForkJoinPool.commonPool();
+        RowPojoMapper<T> mapper = new RowPojoMapper<>(clazz, alias, config, null);
+        List<PipelinedRowConverter<T>> converters = new ArrayList<>(1);
+        //转换中的块也占用队列位置，队列至少要让每个工作线程都有一块可做
+        int window = Math.max(config.getBatchQueueCapacity(), pool.getParallelism() * 2);
+        BatchPipeline.<T>runChunks("excel2Pojo-parser", sink -> {
+            PipelinedRowConverter<T> converter = new PipelinedRowConverter<>(mapper, pool, chunkSize, sink);
+            converters.add(converter);
+            sheet.read(converter);
+            converter.flush();
+        }, window, chunkConsumer);
+        metrics.phase(ExcelMetrics.Phase.PARSE, phaseStart);
+        long rows = converters.get(0).getRows();
+        metrics.finish(rows, rows * mapper.getMappedColumns());
+    }
+
+    /**
+     * 流式解析第一张表，按导入参数选择共享字符串表放在内存还是磁盘上
+     *
+     * @param pkg      表格包
+     * @param config   导入参数
+     * @param callback 行回调
+     * @throws Exception
+     */
+    private static void parseSheet(OPCPackage pkg, ImportConfig config, RowCallback callback) throws Exception {
+        try (SharedStrings sharedStrings = SharedStrings.open(pkg, config)) {
+            XlsxSheetParser.parse(pkg, 0, sharedStrings, callback);
+        }
+    }
+
+    /**
+     * 借助文件旁边的行索引流式解析第一张表，见SheetIndex
+     *
+     * @param file     xlsx文件
+     * @param pkg      表格包
+     * @param config   导入参数
+     * @param callback 行回调
+     * @throws Exception
+     */
+    private static void parseIndexed(Path file, OPCPackage pkg, ImportConfig config, RowCallback callback) throws Exception {
+        try (SharedStrings sharedStrings = SharedStrings.open(pkg, config)) {
+            SheetIndex.parse(file, pkg, sharedStrings, config, callback);
+        }
+    }
+
+    /**
+     * 流式读取一张表，xlsx和xls使用各自的解析器
+     */
+    private interface SheetReader {
+        void read(RowCallback callback) throws Exception;
+    }
+
+    /**
+     * 对打开的第一张表执行的操作
+     */
+    private interface SheetTask {
+        void run(SheetReader sheet) throws Exception;
+    }
+
+    /**
+     * 把输入流写到临时文件后按文件读取，执行完task后删除临时文件
+     *
+     * @param inputStream 输入流
+     * @param config      导入参数
+     * @param metrics     统计，记录OPEN阶段和读入的字节数
+     * @param task        对第一张表执行的操作
+     * @throws IOException
+     */
+    private static void readWorkbook(InputStream inputStream, ImportConfig config, MetricsRecorder metrics, SheetTask task) throws IOException {
+        long phaseStart = metrics.mark();
+        Path tempFile = Files.createTempFile("excel2Pojo", ".tmp");
+        try {
+            metrics.addBytes(Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING));
+            readWorkbook(tempFile, false, config, metrics, phaseStart, task);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 按文件头识别格式并只读打开文件，执行task
+     * <p>
+     * OPCPackage直接读流会把整个zip解压到内存，按文件打开时只在读取时解压需要的部分；
+     * xls同样按文件打开，通过HSSF事件模型逐条读取记录，不生成HSSFWorkbook。
+     *
+     * @param file       excel文件
+     * @param indexed    是否可以使用文件旁边的行索引，读取临时文件时为false
+     * @param config     导入参数
+     * @param metrics    统计，记录OPEN阶段
+     * @param phaseStart OPEN阶段的开始时间
+     * @param task       对第一张表执行的操作
+     * @throws IOException
+     */
+    private static void readWorkbook(Path file, boolean indexed, ImportConfig config, MetricsRecorder metrics, long phaseStart, SheetTask task) throws IOException {
+        try {
+            FileMagic magic = fileMagic(file);
+            if (magic == FileMagic.OLE2) {
+                metrics.phase(ExcelMetrics.Phase.OPEN, phaseStart);
+                task.run(callback -> XlsSheetParser.parse(file.toFile(), 0, callback));
+                return;
+            }
+            OPCPackage pkg = openPackage(file, magic);
+            metrics.phase(ExcelMetrics.Phase.OPEN, phaseStart);
+            try {
+                if (indexed && config.getIndexInterval() > 0) {
+                    task.run(callback -> parseIndexed(file, pkg, config, callback));
+                } else {
+                    task.run(callback -> parseSheet(pkg, config, callback));
+                }
+            } finally {
+                //只读打开的文件不需要保存
+                pkg.revert();
+            }
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("解析excel失败", e);
+        }
+    }
+
+    /**
+     * 读取文件头识别文件格式
+     */
+    private static FileMagic fileMagic(Path file) throws IOException {
+        try (InputStream head = FileMagic.prepareToCheckMagic(Files.newInputStream(file))) {
+            return FileMagic.valueOf(head);
+        }
+    }
+
+    /**
+     * 只读打开xlsx文件，zip中的条目在读取时才解压
+     *
+     * @param file  excel文件
+     * @param magic 文件格式
+     */
+    private static OPCPackage openPackage(Path file, FileMagic magic) throws IOException {
+        if (magic != FileMagic.OOXML) {
+            throw new IOException("不支持的文件格式:" + magic);
+        }
+        try {
+            return OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("解析excel失败", e);
+        }
+    }
+
+    /**
+     * 将excel表转换成指定类型的对象数组，类带有@ExcelColumn注解时按注解的列名对应属性，否则列名即作为对象属性
      *
      * @param clazz 类型
      * @return
@@ -514,12 +1629,9 @@ public class ExcelUtil {
      */
     public static <T> List<T> excel2Pojo(InputStream inputStream, Class<T> clazz) throws IllegalArgumentException, SecurityException, IOException {
         LinkedHashMap<String, String> alias = new LinkedHashMap<String, String>();
-        Field[] fields = clazz.getDeclaredFields();
-        for (Field field : fields) {
-            //序列化添加的变量，不需要，排除。
-            if (!field.getName().equals("serialVersionUID")) {
-                alias.put(field.getName(), field.getName());
-            }
+        //getAlias是Map<"属性名","列名">，导入需要Map<"列名","属性名">
+        for (Entry<String, String> entry : getAlias(clazz).entrySet()) {
+            alias.put(entry.getValue(), entry.getKey());
         }
         List<T> pojoList = excel2Pojo(inputStream, clazz, alias);
         return pojoList;
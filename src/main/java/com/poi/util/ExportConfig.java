@@ -0,0 +1,243 @@
+package com.poi.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * pojo2Excel导出参数
+ * <p>
+ * 默认使用XSSFWorkbook在内存中生成整个表格，数据量大时打开streaming，
+ * 改用SXSSFWorkbook流式写出，内存中只保留rowAccessWindowSize行，其余行刷到临时文件。
+ * <p>
+ * 数据行超过maxRowsPerSheet时自动拆分到多张表，每张表都有标题和列名。
+ * 流式写出时打开parallel，各张表的数据行在ForkJoinPool上并行生成，表的顺序和内容与串行时一致；
+ * 有SHARED或AUTO列时共享字符串的序号按写出顺序分配，各张表仍按顺序生成，保证每次生成的文件相同。
+ * <p>
+ * 流式写出时可以按列选择文本的写法：INLINE直接写在单元格里，写得快；SHARED写进共享字符串表，
+ * 重复的文本只保存一次，文件小；AUTO先抽样每张表数据行中的stringSampleSize个值，抽样的值直接写在单元格中，
+ * 不同的值不超过一半时之后的值用SHARED，否则用INLINE。
+ * 内存模式下XSSFWorkbook总是使用共享字符串表。
+ */
+public class ExportConfig {
+    /**
+     * 文本单元格的写法
+     */
+    public enum StringStrategy {
+        /**
+         * 文本直接写在单元格中
+         */
+        INLINE,
+        /**
+         * 文本写进共享字符串表，单元格中只保存序号
+         */
+        SHARED,
+        /**
+         * 按抽样的重复程度在INLINE和SHARED之间选择
+         */
+        AUTO
+    }
+
+    /**
+     * SXSSF默认的行窗口大小
+     */
+    public static final int DEFAULT_ROW_ACCESS_WINDOW_SIZE = 100;
+
+    /**
+     * 一张表最多的数据行数，xlsx最多1048576行，减去标题和列名两行
+     */
+    public static final int MAX_ROWS_PER_SHEET = 1048576 - 2;
+
+    /**
+     * AUTO默认抽样的文本个数
+     */
+    public static final int DEFAULT_STRING_SAMPLE_SIZE = 1000;
+
+    /**
+     * 是否使用SXSSF流式写出
+     */
+    private boolean streaming;
+
+    /**
+     * 流式写出时内存中保留的行数
+     */
+    private int rowAccessWindowSize = DEFAULT_ROW_ACCESS_WINDOW_SIZE;
+
+    /**
+     * 流式写出时临时文件是否使用gzip压缩
+     */
+    private boolean compressTmpFiles = true;
+
+    /**
+     * 日期属性的格式Map<"属性名","格式">，决定日期单元格的显示格式
+     */
+    private Map<String, String> datePatterns = Collections.emptyMap();
+
+    /**
+     * 每张表的数据行数，超过时拆分到下一张表
+     */
+    private int maxRowsPerSheet = MAX_ROWS_PER_SHEET;
+
+    /**
+     * 多张表时是否并行生成数据行，只在流式写出时生效
+     */
+    private boolean parallel;
+
+    /**
+     * 并行生成使用的线程池，为null时使用ForkJoinPool.commonPool()
+     */
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * 统计监听器，为null时不统计
+     */
+    private ExcelMetricsListener metricsListener;
+
+    /**
+     * 没有单独指定的列使用的文本写法，默认和SXSSF一样直接写在单元格中
+     */
+    private StringStrategy stringStrategy = StringStrategy.INLINE;
+
+    /**
+     * 每一列的文本写法Map<"属性名",写法>
+     */
+    private Map<String, StringStrategy> columnStringStrategies = Collections.emptyMap();
+
+    /**
+     * AUTO在每张表中抽样的文本个数
+     */
+    private int stringSampleSize = DEFAULT_STRING_SAMPLE_SIZE;
+
+    /**
+     * 默认配置，内存模式
+     */
+    public static ExportConfig defaults() {
+        return new ExportConfig();
+    }
+
+    /**
+     * 流式写出配置
+     *
+     * @param rowAccessWindowSize 内存中保留的行数
+     */
+    public static ExportConfig streaming(int rowAccessWindowSize) {
+        ExportConfig config = new ExportConfig();
+        config.setStreaming(true);
+        config.setRowAccessWindowSize(rowAccessWindowSize);
+        return config;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public int getRowAccessWindowSize() {
+        return rowAccessWindowSize;
+    }
+
+    public void setRowAccessWindowSize(int rowAccessWindowSize) {
+        if (rowAccessWindowSize < 1) {
+            throw new IllegalArgumentException("rowAccessWindowSize必须大于0:" + rowAccessWindowSize);
+        }
+        this.rowAccessWindowSize = rowAccessWindowSize;
+    }
+
+    public boolean isCompressTmpFiles() {
+        return compressTmpFiles;
+    }
+
+    public void setCompressTmpFiles(boolean compressTmpFiles) {
+        this.compressTmpFiles = compressTmpFiles;
+    }
+
+    public Map<String, String> getDatePatterns() {
+        return datePatterns;
+    }
+
+    /**
+     * 设置日期属性的格式，格式和DateTimeFormatter相同，没有指定的属性使用yyyy-MM-dd HH:mm:ss
+     *
+     * @param datePatterns Map<"属性名","格式">
+     */
+    public void setDatePatterns(Map<String, String> datePatterns) {
+        this.datePatterns = Collections.unmodifiableMap(new HashMap<>(datePatterns));
+    }
+
+    public int getMaxRowsPerSheet() {
+        return maxRowsPerSheet;
+    }
+
+    public void setMaxRowsPerSheet(int maxRowsPerSheet) {
+        if (maxRowsPerSheet < 1 || maxRowsPerSheet > MAX_ROWS_PER_SHEET) {
+            throw new IllegalArgumentException("maxRowsPerSheet必须在1到" + MAX_ROWS_PER_SHEET + "之间:" + maxRowsPerSheet);
+        }
+        this.maxRowsPerSheet = maxRowsPerSheet;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public ExcelMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    public void setMetricsListener(ExcelMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    public StringStrategy getStringStrategy() {
+        return stringStrategy;
+    }
+
+    public void setStringStrategy(StringStrategy stringStrategy) {
+        if (stringStrategy == null) {
+            throw new IllegalArgumentException("stringStrategy不能为null");
+        }
+        this.stringStrategy = stringStrategy;
+    }
+
+    public Map<String, StringStrategy> getColumnStringStrategies() {
+        return columnStringStrategies;
+    }
+
+    /**
+     * 设置每一列的文本写法，没有指定的列使用stringStrategy，只在流式写出时生效
+     *
+     * @param columnStringStrategies Map<"属性名",写法>
+     */
+    public void setColumnStringStrategies(Map<String, StringStrategy> columnStringStrategies) {
+        if (columnStringStrategies.containsValue(null)) {
+            throw new IllegalArgumentException("列的文本写法不能为null:" + columnStringStrategies);
+        }
+        this.columnStringStrategies = Collections.unmodifiableMap(new HashMap<>(columnStringStrategies));
+    }
+
+    public int getStringSampleSize() {
+        return stringSampleSize;
+    }
+
+    public void setStringSampleSize(int stringSampleSize) {
+        if (stringSampleSize < 1) {
+            throw new IllegalArgumentException("stringSampleSize必须大于0:" + stringSampleSize);
+        }
+        this.stringSampleSize = stringSampleSize;
+    }
+}
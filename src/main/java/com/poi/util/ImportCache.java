@@ -0,0 +1,350 @@
+package com.poi.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 导入结果缓存，同一个文件重复导入时不再解析
+ * <p>
+ * 键是文件内容的SHA-256、目标类、列别名，以及日期格式、projection、rowOffset和rowLimit这些影响结果的导入参数。
+ * 缓存中不保存导入得到的对象本身，只保存每个对象各属性的值，命中时创建新的对象填入，
+ * 调用方修改返回的对象不会影响缓存。容量按单元格数（行数×属性数）计算，超过maxCells时淘汰最久没有使用的结果。
+ * <p>
+ * 所有方法都是线程安全的。两个线程同时导入同一个没有缓存的文件时都会解析，结果以后放入的为准。
+ */
+public class ImportCache {
+    /**
+     * 最多缓存的单元格数
+     */
+    private final long maxCells;
+
+    /**
+     * 按访问顺序排列，第一个是最久没有使用的
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * 当前缓存的单元格数
+     */
+    private long cells;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    /**
+     * @param maxCells 最多缓存的单元格数，行数×属性数
+     */
+    public ImportCache(long maxCells) {
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("maxCells必须大于0:" + maxCells);
+        }
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * 命中次数
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 没有命中的次数
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 因为容量不够被淘汰的结果数
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 缓存的导入结果数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 当前缓存的单元格数
+     */
+    public synchronized long getCells() {
+        return cells;
+    }
+
+    public long getMaxCells() {
+        return maxCells;
+    }
+
+    /**
+     * 清空缓存，统计数据保留
+     */
+    public synchronized void clear() {
+        entries.clear();
+        cells = 0;
+    }
+
+    /**
+     * 查找缓存，没有命中时调用loader导入并放入缓存
+     *
+     * @param hash   文件内容的SHA-256
+     * @param clazz  类型
+     * @param alias  列别名,格式要求：Map<"列名","类属性名">
+     * @param config 导入参数
+     * @param loader 没有命中时实际导入
+     * @return
+     * @throws IOException
+     */
+    <T> List<T> get(String hash, Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, Loader<T> loader) throws IOException {
+        Key key = new Key(hash, clazz, alias, config);
+        PojoMapping<T> mapping = PojoMapping.of(clazz, alias.values(), config.getDatePatterns());
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null) {
+                hitCount++;
+            } else {
+                missCount++;
+            }
+        }
+        if (entry != null) {
+            return entry.restore(mapping);
+        }
+        List<T> result = loader.load();
+        if (result != null) {
+            Entry created = Entry.snapshot(mapping, result);
+            if (created != null) {
+                put(key, created);
+            }
+        }
+        return result;
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        if (entry.cells > maxCells) {
+            return;
+        }
+        Entry old = entries.put(key, entry);
+        if (old != null) {
+            cells -= old.cells;
+        }
+        cells += entry.cells;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (cells > maxCells) {
+            cells -= eldest.next().cells;
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * 把输入流拷贝到文件，同时计算内容的SHA-256
+     *
+     * @param inputStream 输入流，读完后不关闭
+     * @param file        目标文件，已经存在时覆盖
+     * @return 十六进制的摘要
+     * @throws IOException
+     */
+    static String copyAndHash(InputStream inputStream, Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            copy(new DigestInputStream(inputStream, digest), out);
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * 计算文件内容的SHA-256
+     *
+     * @param file 文件
+     * @return 十六进制的摘要
+     * @throws IOException
+     */
+    static String hash(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+            copy(in, null);
+        }
+        return hex(digest.digest());
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            if (out != null) {
+                out.write(buffer, 0, n);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            //每个Java平台都必须支持SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder text = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            text.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return text.toString();
+    }
+
+    /**
+     * 没有命中时的实际导入
+     */
+    interface Loader<T> {
+        List<T> load() throws IOException;
+    }
+
+    /**
+     * 一次导入的结果，每个对象保存为一行属性值
+     */
+    private static final class Entry {
+        /**
+         * 保存了值的属性
+         */
+        private final PropertyAccessor[] accessors;
+
+        private final Object[][] rows;
+
+        private final long cells;
+
+        private Entry(PropertyAccessor[] accessors, Object[][] rows) {
+            this.accessors = accessors;
+            this.rows = rows;
+            this.cells = Math.max(1, (long) rows.length * accessors.length);
+        }
+
+        /**
+         * 读出导入时可能设置过的属性的值
+         *
+         * @return 有可写不可读的属性时无法还原，返回null
+         */
+        static <T> Entry snapshot(PojoMapping<T> mapping, List<T> result) {
+            Map<String, PropertyAccessor> writable = new LinkedHashMap<>();
+            for (PropertyAccessor accessor : mapping.getAccessors()) {
+                if (accessor != null && accessor.isWritable()) {
+                    if (!accessor.isReadable()) {
+                        return null;
+                    }
+                    writable.put(accessor.getName(), accessor);
+                }
+            }
+            PropertyAccessor[] accessors = writable.values().toArray(new PropertyAccessor[0]);
+            Object[][] rows = new Object[result.size()][];
+            for (int i = 0; i < rows.length; i++) {
+                T model = result.get(i);
+                Object[] values = new Object[accessors.length];
+                for (int j = 0; j < accessors.length; j++) {
+                    values[j] = copy(accessors[j].get(model));
+                }
+                rows[i] = values;
+            }
+            return new Entry(accessors, rows);
+        }
+
+        /**
+         * 创建新的对象填入保存的值
+         */
+        <T> List<T> restore(PojoMapping<T> mapping) {
+            List<T> result = new ArrayList<>(rows.length);
+            for (Object[] values : rows) {
+                T instance = mapping.newInstance();
+                for (int j = 0; j < accessors.length; j++) {
+                    if (values[j] != null) {
+                        accessors[j].set(instance, copy(values[j]));
+                    }
+                }
+                result.add(instance);
+            }
+            return result;
+        }
+
+        /**
+         * java.util.Date是可变的，存取时都拷贝一份
+         */
+        private static Object copy(Object value) {
+            return value instanceof Date ? ((Date) value).clone() : value;
+        }
+    }
+
+    /**
+     * 文件内容和所有影响导入结果的参数
+     */
+    private static final class Key {
+        private final String hash;
+
+        private final Class<?> clazz;
+
+        private final List<String> alias;
+
+        private final Map<String, String> datePatterns;
+
+        private final Set<String> projection;
+
+        private final int rowOffset;
+
+        private final int rowLimit;
+
+        Key(String hash, Class<?> clazz, LinkedHashMap<String, String> alias, ImportConfig config) {
+            this.hash = hash;
+            this.clazz = clazz;
+            //按顺序展开列名和属性名，顺序不同时只是不能命中
+            List<String> flattened = new ArrayList<>(alias.size() * 2);
+            for (Map.Entry<String, String> entry : alias.entrySet()) {
+                flattened.add(entry.getKey());
+                flattened.add(entry.getValue());
+            }
+            this.alias = flattened;
+            this.datePatterns = config.getDatePatterns();
+            this.projection = config.getProjection();
+            this.rowOffset = config.getRowOffset();
+            this.rowLimit = config.getRowLimit();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return rowOffset == key.rowOffset && rowLimit == key.rowLimit && hash.equals(key.hash) && clazz == key.clazz
+                    && alias.equals(key.alias) && datePatterns.equals(key.datePatterns) && Objects.equals(projection, key.projection);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hash, clazz, alias, datePatterns, projection, rowOffset, rowLimit);
+        }
+    }
+}
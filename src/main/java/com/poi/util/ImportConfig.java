@@ -0,0 +1,271 @@
+package com.poi.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * excel2Pojo导入参数
+ * <p>
+ * 打开parallel时使用流水线导入：解析线程只拷贝原始单元格值，每chunkSize行作为一块交给ForkJoinPool转换成对象，
+ * 结果按行的顺序交给调用方。列多、类型转换多的表格可以按核数提升转换速度。
+ * <p>
+ * 唯一字符串很多时打开diskSharedStrings，共享字符串表保存在临时文件中，内存中只缓存sharedStringsCacheSize条。
+ * <p>
+ * projection、rowOffset和rowLimit用来只读一部分列或行：不需要的单元格在解析时直接跳过，不生成值，
+ * 读够rowLimit行后立即停止解析，预览大文件的前几行不需要解析整个文件。
+ * <p>
+ * 按页反复读取同一个本地xlsx文件时设置indexInterval，第一次完整读取时生成行索引保存在文件旁边，
+ * 之后指定rowOffset的读取从索引中最近的检查点开始解析，见SheetIndex。
+ * <p>
+ * 同一个文件会被多次导入时设置cache，返回List的excel2Pojo先按文件内容查找缓存，命中时不再解析，见ImportCache。
+ * <p>
+ * 多张表导入时每张表是sheetExecutor中的一个任务，同时解析。
+ */
+public class ImportConfig {
+    /**
+     * 分批导入时默认最多等待处理的批数
+     */
+    public static final int DEFAULT_BATCH_QUEUE_CAPACITY = 2;
+
+    /**
+     * 并行转换时默认每块的行数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * 日期属性的格式Map<"属性名","格式">，文本单元格按这个格式解析
+     */
+    private Map<String, String> datePatterns = Collections.emptyMap();
+
+    /**
+     * 统计监听器，为null时不统计
+     */
+    private ExcelMetricsListener metricsListener;
+
+    /**
+     * 分批导入时最多等待处理的批数，达到后解析暂停
+     */
+    private int batchQueueCapacity = DEFAULT_BATCH_QUEUE_CAPACITY;
+
+    /**
+     * 是否在线程池中并行转换数据行
+     */
+    private boolean parallel;
+
+    /**
+     * 并行转换使用的线程池，为null时使用ForkJoinPool.commonPool()
+     */
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * 并行转换时每块的行数，分批导入时使用batchSize
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * 流式读取时共享字符串表是否保存在磁盘上
+     */
+    private boolean diskSharedStrings;
+
+    /**
+     * 共享字符串表保存在磁盘上时缓存的字符串条数
+     */
+    private int sharedStringsCacheSize = DiskSharedStrings.DEFAULT_CACHE_SIZE;
+
+    /**
+     * 只读取的属性，为null时读取alias中的全部属性
+     */
+    private Set<String> projection;
+
+    /**
+     * 跳过的数据行数，不包括标题和列名行
+     */
+    private int rowOffset;
+
+    /**
+     * 最多读取的数据行数
+     */
+    private int rowLimit = Integer.MAX_VALUE;
+
+    /**
+     * 读取本地xlsx文件时行索引每隔多少行一个检查点，为0时不使用行索引
+     */
+    private int indexInterval;
+
+    /**
+     * 导入结果缓存，为null时不缓存
+     */
+    private ImportCache cache;
+
+    /**
+     * 多张表导入时解析各张表的线程池，为null时每次导入临时创建，线程数不超过表数和核数
+     */
+    private Executor sheetExecutor;
+
+    /**
+     * 默认配置
+     */
+    public static ImportConfig defaults() {
+        return new ImportConfig();
+    }
+
+    public Map<String, String> getDatePatterns() {
+        return datePatterns;
+    }
+
+    /**
+     * 设置日期属性的格式，格式和DateTimeFormatter相同，没有指定的属性使用yyyy-MM-dd HH:mm:ss
+     *
+     * @param datePatterns Map<"属性名","格式">
+     */
+    public void setDatePatterns(Map<String, String> datePatterns) {
+        this.datePatterns = Collections.unmodifiableMap(new HashMap<>(datePatterns));
+    }
+
+    public ExcelMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    public void setMetricsListener(ExcelMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    public int getBatchQueueCapacity() {
+        return batchQueueCapacity;
+    }
+
+    public void setBatchQueueCapacity(int batchQueueCapacity) {
+        if (batchQueueCapacity < 1) {
+            throw new IllegalArgumentException("batchQueueCapacity必须大于0:" + batchQueueCapacity);
+        }
+        this.batchQueueCapacity = batchQueueCapacity;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public ForkJoinPool getForkJoinPool() {
+        return forkJoinPool;
+    }
+
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize必须大于0:" + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isDiskSharedStrings() {
+        return diskSharedStrings;
+    }
+
+    public void setDiskSharedStrings(boolean diskSharedStrings) {
+        this.diskSharedStrings = diskSharedStrings;
+    }
+
+    public int getSharedStringsCacheSize() {
+        return sharedStringsCacheSize;
+    }
+
+    public void setSharedStringsCacheSize(int sharedStringsCacheSize) {
+        if (sharedStringsCacheSize < 1) {
+            throw new IllegalArgumentException("sharedStringsCacheSize必须大于0:" + sharedStringsCacheSize);
+        }
+        this.sharedStringsCacheSize = sharedStringsCacheSize;
+    }
+
+    public Set<String> getProjection() {
+        return projection;
+    }
+
+    /**
+     * 设置只读取的属性，其他列的单元格在解析时跳过，对象中对应的属性保持默认值
+     *
+     * @param properties 属性名，为null时读取alias中的全部属性
+     */
+    public void setProjection(Collection<String> properties) {
+        this.projection = properties == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(properties));
+    }
+
+    public int getRowOffset() {
+        return rowOffset;
+    }
+
+    public void setRowOffset(int rowOffset) {
+        if (rowOffset < 0) {
+            throw new IllegalArgumentException("rowOffset不能小于0:" + rowOffset);
+        }
+        this.rowOffset = rowOffset;
+    }
+
+    public int getRowLimit() {
+        return rowLimit;
+    }
+
+    public void setRowLimit(int rowLimit) {
+        if (rowLimit < 0) {
+            throw new IllegalArgumentException("rowLimit不能小于0:" + rowLimit);
+        }
+        this.rowLimit = rowLimit;
+    }
+
+    public int getIndexInterval() {
+        return indexInterval;
+    }
+
+    public void setIndexInterval(int indexInterval) {
+        if (indexInterval < 0) {
+            throw new IllegalArgumentException("indexInterval不能小于0:" + indexInterval);
+        }
+        this.indexInterval = indexInterval;
+    }
+
+    public ImportCache getCache() {
+        return cache;
+    }
+
+    public void setCache(ImportCache cache) {
+        this.cache = cache;
+    }
+
+    public Executor getSheetExecutor() {
+        return sheetExecutor;
+    }
+
+    /**
+     * 设置多张表导入时解析各张表的线程池
+     * <p>
+     * 同时打开parallel时不要和forkJoinPool使用同一个线程池，解析任务会等待转换任务。
+     *
+     * @param sheetExecutor 线程池，为null时每次导入临时创建
+     */
+    public void setSheetExecutor(Executor sheetExecutor) {
+        this.sheetExecutor = sheetExecutor;
+    }
+
+    /**
+     * 是否只读取一部分列或行
+     */
+    boolean isPartialRead() {
+        return projection != null || rowOffset > 0 || rowLimit != Integer.MAX_VALUE;
+    }
+}
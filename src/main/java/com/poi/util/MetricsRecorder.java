@@ -0,0 +1,165 @@
+package com.poi.util;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 记录一次导出或导入的各阶段耗时，交给ExcelMetricsListener
+ * <p>
+ * 没有监听器时所有方法直接返回，不调用System.nanoTime，也不包装输入输出流。
+ */
+final class MetricsRecorder {
+    /**
+     * 没有监听器时共用的记录器
+     */
+    private static final MetricsRecorder DISABLED = new MetricsRecorder(null, null);
+
+    private final ExcelMetricsListener listener;
+    private final ExcelMetrics.Operation operation;
+
+    /**
+     * 各阶段耗时，并行生成的表会同时累加
+     */
+    private final AtomicLongArray phaseNanos;
+
+    /**
+     * 开始时间
+     */
+    private final long start;
+
+    /**
+     * 写出或读入的字节数，只在调用线程上累加
+     */
+    private long bytes;
+
+    private MetricsRecorder(ExcelMetricsListener listener, ExcelMetrics.Operation operation) {
+        this.listener = listener;
+        this.operation = operation;
+        this.phaseNanos = listener == null ? null : new AtomicLongArray(ExcelMetrics.Phase.values().length);
+        this.start = listener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * 开始记录
+     *
+     * @param listener  监听器，为null时返回不记录的记录器
+     * @param operation 操作类型
+     */
+    static MetricsRecorder start(ExcelMetricsListener listener, ExcelMetrics.Operation operation) {
+        return listener == null ? DISABLED : new MetricsRecorder(listener, operation);
+    }
+
+    boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * 当前时间，不记录时返回0
+     */
+    long mark() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * 记录一个阶段从since到现在的耗时
+     *
+     * @param phase 阶段
+     * @param since mark()返回的时间
+     */
+    void phase(ExcelMetrics.Phase phase, long since) {
+        if (listener == null) {
+            return;
+        }
+        long nanos = System.nanoTime() - since;
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+        listener.onPhase(phase, nanos);
+    }
+
+    /**
+     * 累加字节数，不记录时不写共用的DISABLED
+     */
+    void addBytes(long count) {
+        if (listener == null) {
+            return;
+        }
+        bytes += count;
+    }
+
+    /**
+     * 包装输出流，记录写出的字节数，不记录时返回原输出流
+     */
+    OutputStream wrap(OutputStream out) {
+        if (listener == null) {
+            return out;
+        }
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytes += len;
+            }
+        };
+    }
+
+    /**
+     * 包装输入流，记录读入的字节数，不记录时返回原输入流
+     */
+    InputStream wrap(InputStream in) {
+        if (listener == null) {
+            return in;
+        }
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) {
+                    bytes++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = in.read(b, off, len);
+                if (n > 0) {
+                    bytes += n;
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = in.skip(n);
+                bytes += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    /**
+     * 结束记录，通知监听器
+     *
+     * @param rows  数据行数
+     * @param cells 单元格数
+     */
+    void finish(long rows, long cells) {
+        if (listener == null) {
+            return;
+        }
+        long[] nanos = new long[phaseNanos.length()];
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = phaseNanos.get(i);
+        }
+        listener.onFinished(new ExcelMetrics(operation, nanos, System.nanoTime() - start, rows, cells, bytes));
+    }
+}
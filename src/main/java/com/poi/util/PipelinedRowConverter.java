@@ -0,0 +1,101 @@
+package com.poi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * 流水线导入的解析端
+ * <p>
+ * 解析线程只把原始行拷贝成紧凑的RawRow，攒够chunkSize行后作为一块提交到线程池转换成对象，
+ * 块的Future交给BatchPipeline，由调用线程按顺序取结果，所以对象的顺序和表格中行的顺序一致。
+ */
+class PipelinedRowConverter<T> implements RowCallback {
+    /**
+     * 列名和单行转换，列名行读完后只读，可以被多个线程同时使用
+     */
+    private final RowPojoMapper<T> mapper;
+
+    /**
+     * 转换使用的线程池
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * 每块的行数
+     */
+    private final int chunkSize;
+
+    /**
+     * 接收每一块的Future
+     */
+    private final Consumer<Future<List<T>>> sink;
+
+    /**
+     * 正在攒的一块
+     */
+    private List<RawRow> chunk;
+
+    /**
+     * 已经解析的数据行数
+     */
+    private long rows;
+
+    PipelinedRowConverter(RowPojoMapper<T> mapper, ForkJoinPool pool, int chunkSize, Consumer<Future<List<T>>> sink) {
+        this.mapper = mapper;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.sink = sink;
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void onRow(RawRow row) throws Exception {
+        if (mapper.readHead(row)) {
+            return;
+        }
+        //解析器复用同一个RawRow，交给其他线程前必须拷贝
+        chunk.add(row.copy());
+        rows++;
+        if (chunk.size() == chunkSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public boolean isColumnNeeded(int rowNum, int column) {
+        return mapper.isColumnNeeded(rowNum, column);
+    }
+
+    @Override
+    public boolean isDone() {
+        return mapper.isDone();
+    }
+
+    /**
+     * 提交正在攒的一块，解析结束后要调用一次
+     */
+    void flush() {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<RawRow> rawRows = chunk;
+        chunk = new ArrayList<>(chunkSize);
+        sink.accept(pool.submit(() -> {
+            List<T> result = new ArrayList<>(rawRows.size());
+            for (RawRow rawRow : rawRows) {
+                result.add(mapper.convert(rawRow));
+            }
+            return result;
+        }));
+    }
+
+    /**
+     * 已经解析的数据行数
+     */
+    long getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,404 @@
+package com.poi.util;
+
+import com.poi.annotation.ExcelColumn;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * 类和别名的映射计划
+ * <p>
+ * 同一个类的每个属性按日期格式只解析一次，不同的别名组合复用同一批读写器。
+ * 计划创建后不再修改，可以被多个线程同时使用。
+ * <p>
+ * 类带有@ExcelColumn注解并且编译时生成了"类名ExcelMapper"时，直接使用生成的映射器读写属性，
+ * 不再通过Introspector和LambdaMetafactory解析，映射器中没有的属性仍按getter和setter解析。
+ */
+final class PojoMapping<T> {
+    /**
+     * 按类缓存解析结果，值中的读写器和构造器引用了类本身（见JDK-8136353），
+     * 所以每个类只缓存按(属性, 日期格式)解析出的读写器，数量受类的属性数限制，不随别名组合增长
+     */
+    private static final ClassValue<ClassInfo<?>> CACHE = new ClassValue<ClassInfo<?>>() {
+        @Override
+        protected ClassInfo<?> computeValue(Class<?> type) {
+            return new ClassInfo<>(type);
+        }
+    };
+
+    /**
+     * 编译时生成的映射器，按类缓存，没有时为null
+     */
+    private static final ClassValue<ExcelMapper<?>> MAPPERS = new ClassValue<ExcelMapper<?>>() {
+        @Override
+        protected ExcelMapper<?> computeValue(Class<?> type) {
+            return loadMapper(type);
+        }
+    };
+
+    /**
+     * 生成的映射器类名的后缀
+     */
+    private static final String MAPPER_SUFFIX = "ExcelMapper";
+
+    /**
+     * 类类型
+     */
+    private final Class<T> clazz;
+
+    /**
+     * 无参构造器
+     */
+    private final Supplier<T> constructor;
+
+    /**
+     * 属性名，按列的顺序
+     */
+    private final List<String> properties;
+
+    /**
+     * 按别名顺序排列的属性读写器，类中没有的属性为null
+     */
+    private final PropertyAccessor[] accessors;
+
+    /**
+     * 属性名到读写器的对应关系
+     */
+    private final Map<String, PropertyAccessor> accessorMap;
+
+    private PojoMapping(Class<T> clazz, Supplier<T> constructor, List<String> properties, PropertyAccessor[] accessors) {
+        this.clazz = clazz;
+        this.constructor = constructor;
+        this.properties = properties;
+        this.accessors = accessors;
+        Map<String, PropertyAccessor> map = new HashMap<>();
+        for (PropertyAccessor accessor : accessors) {
+            if (accessor != null) {
+                map.put(accessor.getName(), accessor);
+            }
+        }
+        this.accessorMap = map;
+    }
+
+    /**
+     * 获取映射计划，日期属性使用默认格式
+     *
+     * @param clazz      类类型
+     * @param properties 属性名，按列的顺序
+     * @return
+     */
+    static <T> PojoMapping<T> of(Class<T> clazz, Collection<String> properties) {
+        return of(clazz, properties, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * 获取映射计划，读写器按(类, 属性, 日期格式)缓存，计划本身按别名顺序现场组装
+     *
+     * @param clazz        类类型
+     * @param properties   属性名，按列的顺序
+     * @param datePatterns 日期属性的格式Map<"属性名","格式">，没有指定的使用默认格式
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static <T> PojoMapping<T> of(Class<T> clazz, Collection<String> properties, Map<String, String> datePatterns) {
+        ClassInfo<T> info = (ClassInfo<T>) CACHE.get(clazz);
+        List<String> names = Collections.unmodifiableList(new ArrayList<>(properties));
+        PropertyAccessor[] accessors = new PropertyAccessor[names.size()];
+        for (int i = 0; i < accessors.length; i++) {
+            String property = names.get(i);
+            if (property != null) {
+                accessors[i] = info.accessor(property, datePatterns.get(property));
+            }
+        }
+        return new PojoMapping<>(clazz, info.constructor, names, accessors);
+    }
+
+    /**
+     * 通过生成的映射器读写属性
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> PropertyAccessor accessor(ExcelMapper<T> mapper, int index, String property, Class<?> type, String pattern) {
+        return new PropertyAccessor(property, type, pattern,
+                bean -> mapper.get((T) bean, index),
+                (bean, value) -> mapper.set((T) bean, index, value));
+    }
+
+    /**
+     * 用Introspector解析类的所有属性
+     */
+    private static Map<String, PropertyDescriptor> descriptors(Class<?> clazz) {
+        Map<String, PropertyDescriptor> descriptors = new HashMap<>();
+        try {
+            BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
+            for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+                descriptors.put(descriptor.getName(), descriptor);
+            }
+        } catch (IntrospectionException e) {
+            throw new IllegalArgumentException("无法解析类的属性:" + clazz.getName(), e);
+        }
+        return descriptors;
+    }
+
+    /**
+     * 没有生成映射器时，从字段的@ExcelColumn注解读取日期格式
+     */
+    private static String annotatedFormat(Class<?> clazz, String property) {
+        for (Class<?> type = clazz; type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(property);
+                ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+                return column == null || column.format().isEmpty() ? null : column.format();
+            } catch (NoSuchFieldException e) {
+                //继续在父类中查找
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取编译时生成的映射器
+     *
+     * @param clazz 类类型
+     * @return 没有生成映射器时返回null
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ExcelMapper<T> mapper(Class<T> clazz) {
+        return (ExcelMapper<T>) MAPPERS.get(clazz);
+    }
+
+    /**
+     * 按"类名ExcelMapper"加载生成的映射器
+     */
+    private static ExcelMapper<?> loadMapper(Class<?> clazz) {
+        if (clazz.isPrimitive() || clazz.isArray()) {
+            return null;
+        }
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(clazz.getName() + MAPPER_SUFFIX, true, clazz.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        if (!ExcelMapper.class.isAssignableFrom(mapperClass)) {
+            return null;
+        }
+        try {
+            ExcelMapper<?> mapper = (ExcelMapper<?>) mapperClass.getDeclaredConstructor().newInstance();
+            return mapper.type() == clazz ? mapper : null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法创建映射器:" + mapperClass.getName(), e);
+        }
+    }
+
+    /**
+     * 生成无参构造器，类没有可访问的无参构造器时返回null，导入时才报错
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Supplier<T> constructor(MethodHandles.Lookup lookup, Class<T> clazz) {
+        MethodHandle handle;
+        try {
+            handle = lookup.findConstructor(clazz, MethodType.methodType(void.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+        if (PropertyAccessor.canLinkLambda(lookup, clazz)) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        handle,
+                        MethodType.methodType(clazz));
+                return (Supplier<T>) site.getTarget().invoke();
+            } catch (Throwable e) {
+                //退回到MethodHandle
+            }
+        }
+        MethodHandle generic = handle.asType(MethodType.methodType(Object.class));
+        return () -> {
+            try {
+                return (T) generic.invokeExact();
+            } catch (RuntimeException | Error ex) {
+                throw ex;
+            } catch (Throwable ex) {
+                throw new IllegalStateException(ex);
+            }
+        };
+    }
+
+    Class<T> getClazz() {
+        return clazz;
+    }
+
+    /**
+     * 创建一个新对象
+     */
+    T newInstance() {
+        if (constructor == null) {
+            throw new IllegalStateException("没有可访问的无参构造器:" + clazz.getName());
+        }
+        return constructor.get();
+    }
+
+    /**
+     * 按别名顺序排列的读写器，类中没有的属性为null
+     */
+    PropertyAccessor[] getAccessors() {
+        return accessors;
+    }
+
+    /**
+     * 检查所有属性都可读，导出时每一列都要取值
+     *
+     * @throws IllegalArgumentException 有属性不存在或者没有getter
+     */
+    void checkReadable() {
+        for (int i = 0; i < accessors.length; i++) {
+            if (accessors[i] == null || !accessors[i].isReadable()) {
+                throw new IllegalArgumentException("属性不可读:" + clazz.getName() + "." + properties.get(i));
+            }
+        }
+    }
+
+    /**
+     * 按属性名获取读写器
+     *
+     * @param property 属性名
+     * @return 类中没有这个属性时返回null
+     */
+    PropertyAccessor getAccessor(String property) {
+        return accessorMap.get(property);
+    }
+
+    /**
+     * 一个类的解析结果：生成的映射器、属性描述和已经创建的读写器
+     */
+    private static final class ClassInfo<T> {
+        private final Class<T> clazz;
+
+        /**
+         * 编译时生成的映射器，没有时为null
+         */
+        private final ExcelMapper<T> mapper;
+
+        /**
+         * 映射器中的属性名到序号的对应关系
+         */
+        private final Map<String, Integer> mapped = new HashMap<>();
+
+        /**
+         * 无参构造器，类没有可访问的无参构造器时为null
+         */
+        private final Supplier<T> constructor;
+
+        /**
+         * 按(属性, 日期格式)缓存的读写器，类中没有的属性不缓存
+         */
+        private final ConcurrentMap<Key, PropertyAccessor> accessors = new ConcurrentHashMap<>();
+
+        /**
+         * Introspector解析的属性，第一次用到映射器之外的属性时才解析
+         */
+        private volatile Map<String, PropertyDescriptor> descriptors;
+
+        ClassInfo(Class<T> clazz) {
+            this.clazz = clazz;
+            this.mapper = mapper(clazz);
+            if (mapper != null) {
+                String[] mapperProperties = mapper.properties();
+                for (int i = 0; i < mapperProperties.length; i++) {
+                    mapped.put(mapperProperties[i], i);
+                }
+            }
+            this.constructor = mapper != null ? mapper::newInstance : constructor(MethodHandles.lookup(), clazz);
+        }
+
+        /**
+         * 获取属性的读写器
+         *
+         * @param property 属性名
+         * @param pattern  指定的日期格式，为null时使用注解或默认格式
+         * @return 类中没有这个属性时返回null
+         */
+        PropertyAccessor accessor(String property, String pattern) {
+            Key key = new Key(property, pattern);
+            PropertyAccessor accessor = accessors.get(key);
+            if (accessor == null) {
+                accessor = create(property, pattern);
+                if (accessor != null) {
+                    PropertyAccessor existing = accessors.putIfAbsent(key, accessor);
+                    if (existing != null) {
+                        accessor = existing;
+                    }
+                }
+            }
+            return accessor;
+        }
+
+        private PropertyAccessor create(String property, String pattern) {
+            Integer index = mapped.get(property);
+            if (index != null) {
+                String format = mapper.formats()[index];
+                if (pattern == null && !format.isEmpty()) {
+                    pattern = format;
+                }
+                return PojoMapping.accessor(mapper, index, property, mapper.types()[index], pattern);
+            }
+            Map<String, PropertyDescriptor> map = descriptors;
+            if (map == null) {
+                map = descriptors(clazz);
+                descriptors = map;
+            }
+            PropertyDescriptor descriptor = map.get(property);
+            if (descriptor == null || descriptor.getPropertyType() == null) {
+                return null;
+            }
+            if (pattern == null) {
+                pattern = annotatedFormat(clazz, property);
+            }
+            return PropertyAccessor.of(MethodHandles.lookup(), clazz, property, descriptor.getPropertyType(),
+                    pattern, descriptor.getReadMethod(), descriptor.getWriteMethod());
+        }
+    }
+
+    /**
+     * 读写器缓存的键，属性名和日期格式都相同才能共用一个读写器
+     */
+    private static final class Key {
+        private final String property;
+        private final String pattern;
+
+        Key(String property, String pattern) {
+            this.property = property;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return property.equals(key.property) && Objects.equals(pattern, key.pattern);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * property.hashCode() + Objects.hashCode(pattern);
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.poi.util;
+
+import org.apache.commons.beanutils.ConvertUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 一个属性的读写器
+ * <p>
+ * getter和setter在创建时通过LambdaMetafactory生成，属性类型也提前解析好，
+ * 读写单元格时不再做任何反射查找。类由其他类加载器加载、lambda无法访问时使用MethodHandle。
+ */
+final class PropertyAccessor {
+    /**
+     * 属性的值类型，决定单元格文本和属性值之间怎么转换，
+     * DATE包括java.util.Date、LocalDate、LocalDateTime和Instant
+     */
+    enum ValueType {
+        STRING, LONG, INTEGER, SHORT, BYTE, DOUBLE, FLOAT, BIG_DECIMAL, BIG_INTEGER, BOOLEAN, DATE, OTHER
+    }
+
+    /**
+     * 属性名
+     */
+    private final String name;
+
+    /**
+     * 属性类型
+     */
+    private final Class<?> type;
+
+    /**
+     * 值类型
+     */
+    private final ValueType valueType;
+
+    /**
+     * 日期格式，不是日期类型时为null
+     */
+    private final String pattern;
+
+    /**
+     * 日期格式对应的DateTimeFormatter
+     */
+    private final DateTimeFormatter formatter;
+
+    /**
+     * getter，属性不可读时为null
+     */
+    private final Function<Object, Object> getter;
+
+    /**
+     * setter，属性不可写时为null
+     */
+    private final BiConsumer<Object, Object> setter;
+
+    PropertyAccessor(String name, Class<?> type, String pattern, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        this.name = name;
+        this.type = type;
+        this.valueType = valueType(type);
+        if (valueType == ValueType.DATE) {
+            this.pattern = pattern == null ? DateFormats.defaultPattern(type) : pattern;
+            this.formatter = DateFormats.formatter(this.pattern);
+        } else {
+            this.pattern = null;
+            this.formatter = null;
+        }
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * 根据getter和setter方法创建读写器
+     *
+     * @param lookup      生成lambda使用的lookup
+     * @param beanClass   类类型
+     * @param name        属性名
+     * @param type        属性类型
+     * @param pattern     日期格式，为null时使用默认格式
+     * @param readMethod  getter方法，可以为null
+     * @param writeMethod setter方法，可以为null
+     * @return
+     */
+    static PropertyAccessor of(MethodHandles.Lookup lookup, Class<?> beanClass, String name, Class<?> type, String pattern, Method readMethod, Method writeMethod) {
+        Function<Object, Object> getter = readMethod == null ? null : getter(lookup, beanClass, readMethod);
+        BiConsumer<Object, Object> setter = writeMethod == null ? null : setter(lookup, beanClass, type, writeMethod);
+        return new PropertyAccessor(name, type, pattern, getter, setter);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    ValueType getValueType() {
+        return valueType;
+    }
+
+    /**
+     * 日期格式，不是日期类型时为null
+     */
+    String getPattern() {
+        return pattern;
+    }
+
+    boolean isReadable() {
+        return getter != null;
+    }
+
+    boolean isWritable() {
+        return setter != null;
+    }
+
+    /**
+     * 读取属性值
+     */
+    Object get(Object bean) {
+        return getter.apply(bean);
+    }
+
+    /**
+     * 设置属性值，基本类型的属性忽略null
+     */
+    void set(Object bean, Object value) {
+        if (value == null && type.isPrimitive()) {
+            return;
+        }
+        setter.accept(bean, value);
+    }
+
+    /**
+     * 把属性值转换成单元格文本
+     *
+     * @param value 属性值
+     * @return 文本，属性值为null时返回null
+     */
+    String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (valueType == ValueType.DATE) {
+            return formatter.format(DateFormats.toLocalDateTime(value));
+        }
+        return value.toString();
+    }
+
+    /**
+     * 把日期属性值转换成Excel的日期数字
+     */
+    double toExcelDate(Object value) {
+        return DateFormats.toExcelDate(DateFormats.toLocalDateTime(value));
+    }
+
+    /**
+     * 把Excel的日期数字转换成日期属性的值，不经过文本
+     */
+    Object fromExcelDate(double serial) {
+        return DateFormats.fromLocalDateTime(DateFormats.fromExcelDate(serial), type);
+    }
+
+    /**
+     * 把单元格文本转换成属性值并保存
+     *
+     * @param bean 对象
+     * @param text 单元格文本，不为空
+     * @throws Exception 文本不能转换成属性类型
+     */
+    void setText(Object bean, String text) throws Exception {
+        set(bean, parse(text));
+    }
+
+    /**
+     * 把单元格文本转换成属性类型的值
+     *
+     * @param text 单元格文本，不为空
+     * @return
+     * @throws Exception 文本不能转换成属性类型
+     */
+    Object parse(String text) throws Exception {
+        switch (valueType) {
+            case STRING:
+                return text;
+            case LONG:
+                return Long.valueOf(text.trim());
+            case INTEGER:
+                return Integer.valueOf(text.trim());
+            case SHORT:
+                return Short.valueOf(text.trim());
+            case BYTE:
+                return Byte.valueOf(text.trim());
+            case DOUBLE:
+                return Double.valueOf(text.trim());
+            case FLOAT:
+                return Float.valueOf(text.trim());
+            case BIG_DECIMAL:
+                return new BigDecimal(text.trim());
+            case BIG_INTEGER:
+                return new BigInteger(text.trim());
+            case BOOLEAN:
+                return parseBoolean(text.trim());
+            case DATE:
+                return DateFormats.fromLocalDateTime(DateFormats.parse(text, formatter), type);
+            default:
+                //其他类型交给BeanUtils的转换器
+                return ConvertUtils.convert(text, type);
+        }
+    }
+
+    /**
+     * 和BeanUtils的BooleanConverter接受同样的文本
+     */
+    private static Boolean parseBoolean(String text) {
+        String lower = text.toLowerCase();
+        if ("true".equals(lower) || "yes".equals(lower) || "y".equals(lower) || "on".equals(lower) || "1".equals(lower)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equals(lower) || "no".equals(lower) || "n".equals(lower) || "off".equals(lower) || "0".equals(lower)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("不能转换成Boolean:" + text);
+    }
+
+    /**
+     * 解析属性的值类型
+     */
+    private static ValueType valueType(Class<?> type) {
+        Class<?> boxed = box(type);
+        if (boxed == String.class) {
+            return ValueType.STRING;
+        } else if (boxed == Long.class) {
+            return ValueType.LONG;
+        } else if (boxed == Integer.class) {
+            return ValueType.INTEGER;
+        } else if (boxed == Short.class) {
+            return ValueType.SHORT;
+        } else if (boxed == Byte.class) {
+            return ValueType.BYTE;
+        } else if (boxed == Double.class) {
+            return ValueType.DOUBLE;
+        } else if (boxed == Float.class) {
+            return ValueType.FLOAT;
+        } else if (boxed == BigDecimal.class) {
+            return ValueType.BIG_DECIMAL;
+        } else if (boxed == BigInteger.class) {
+            return ValueType.BIG_INTEGER;
+        } else if (boxed == Boolean.class) {
+            return ValueType.BOOLEAN;
+        } else if (Date.class.isAssignableFrom(boxed) || boxed == LocalDate.class
+                || boxed == LocalDateTime.class || boxed == Instant.class) {
+            return ValueType.DATE;
+        }
+        return ValueType.OTHER;
+    }
+
+    /**
+     * 生成getter，类加载器不可见或无法生成lambda时退回到MethodHandle
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(MethodHandles.Lookup lookup, Class<?> beanClass, Method readMethod) {
+        try {
+            MethodHandle handle = lookup.unreflect(readMethod);
+            if (canLinkLambda(lookup, beanClass) && canLinkLambda(lookup, readMethod.getReturnType())) {
+                try {
+                    CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                            MethodType.methodType(Function.class),
+                            MethodType.methodType(Object.class, Object.class),
+                            handle,
+                            MethodType.methodType(box(readMethod.getReturnType()), beanClass));
+                    return (Function<Object, Object>) site.getTarget().invoke();
+                } catch (Throwable e) {
+                    //退回到MethodHandle
+                }
+            }
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return bean -> {
+                try {
+                    return generic.invokeExact(bean);
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("属性不可读:" + readMethod, e);
+        }
+    }
+
+    /**
+     * 生成setter，类加载器不可见或无法生成lambda时退回到MethodHandle
+     */
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(MethodHandles.Lookup lookup, Class<?> beanClass, Class<?> type, Method writeMethod) {
+        try {
+            MethodHandle handle = lookup.unreflect(writeMethod);
+            if (canLinkLambda(lookup, beanClass) && canLinkLambda(lookup, type)) {
+                try {
+                    CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                            MethodType.methodType(BiConsumer.class),
+                            MethodType.methodType(void.class, Object.class, Object.class),
+                            handle,
+                            MethodType.methodType(void.class, beanClass, box(type)));
+                    return (BiConsumer<Object, Object>) site.getTarget().invoke();
+                } catch (Throwable e) {
+                    //退回到MethodHandle
+                }
+            }
+            MethodHandle generic = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return (bean, value) -> {
+                try {
+                    generic.invokeExact(bean, value);
+                } catch (RuntimeException | Error ex) {
+                    throw ex;
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            };
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("属性不可写:" + writeMethod, e);
+        }
+    }
+
+    /**
+     * 生成的lambda类放在lookup所在类的类加载器中，只有这个加载器能看到type时才能使用lambda，
+     * 否则链接时正常、第一次调用时才抛出NoClassDefFoundError，比如web应用或插件自己的加载器中的类
+     *
+     * @param lookup 生成lambda使用的lookup
+     * @param type   lambda签名中用到的类
+     */
+    static boolean canLinkLambda(MethodHandles.Lookup lookup, Class<?> type) {
+        ClassLoader target = type.getClassLoader();
+        if (target == null) {
+            //基本类型和启动类加载器中的类
+            return true;
+        }
+        for (ClassLoader loader = lookup.lookupClass().getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 基本类型转换成包装类型
+     */
+    static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -0,0 +1,134 @@
+package com.poi.util;
+
+import org.apache.poi.ss.util.NumberToTextConverter;
+
+import java.util.Arrays;
+
+/**
+ * 流式读取时的一行原始数据
+ * <p>
+ * 同一个解析过程中只有一个实例，每读完一行就交给回调，随后被下一行复用，
+ * 所以占用的内存只和行宽有关，和文件大小无关。回调中如果要保留数据必须自己拷贝。
+ */
+class RawRow {
+    /**
+     * 行号，从0开始
+     */
+    private int rowNum;
+
+    /**
+     * 当前行有值的最大列号+1
+     */
+    private int width;
+
+    /**
+     * 每一列的文本值，空单元格为null，数字单元格在第一次读取文本时才生成
+     */
+    private String[] values = new String[16];
+
+    /**
+     * 数字单元格的值
+     */
+    private double[] numbers = new double[16];
+
+    /**
+     * 每一列是否是数字单元格
+     */
+    private boolean[] numeric = new boolean[16];
+
+    /**
+     * 开始新的一行，清空上一行的数据
+     *
+     * @param rowNum 行号
+     */
+    void reset(int rowNum) {
+        Arrays.fill(values, 0, width, null);
+        Arrays.fill(numeric, 0, width, false);
+        this.rowNum = rowNum;
+        this.width = 0;
+    }
+
+    /**
+     * 设置某一列的文本值
+     *
+     * @param column 列号
+     * @param value  值
+     */
+    void set(int column, String value) {
+        ensureCapacity(column);
+        values[column] = value;
+        numeric[column] = false;
+    }
+
+    /**
+     * 设置某一列的数字值
+     *
+     * @param column 列号
+     * @param value  值
+     */
+    void setNumber(int column, double value) {
+        ensureCapacity(column);
+        values[column] = null;
+        numbers[column] = value;
+        numeric[column] = true;
+    }
+
+    /**
+     * 拷贝成只包含当前行宽的紧凑RawRow，交给其他线程转换时使用
+     */
+    RawRow copy() {
+        RawRow copy = new RawRow();
+        copy.rowNum = rowNum;
+        copy.width = width;
+        copy.values = Arrays.copyOf(values, width);
+        copy.numbers = Arrays.copyOf(numbers, width);
+        copy.numeric = Arrays.copyOf(numeric, width);
+        return copy;
+    }
+
+    private void ensureCapacity(int column) {
+        if (column >= values.length) {
+            int length = Math.max(values.length * 2, column + 1);
+            values = Arrays.copyOf(values, length);
+            numbers = Arrays.copyOf(numbers, length);
+            numeric = Arrays.copyOf(numeric, length);
+        }
+        if (column >= width) {
+            width = column + 1;
+        }
+    }
+
+    int getRowNum() {
+        return rowNum;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    /**
+     * 获取某一列的文本值，超出行宽返回null
+     * <p>
+     * 数字和DOM方式setCellType(STRING)一致，12.0处理成12
+     */
+    String get(int column) {
+        if (column >= width) {
+            return null;
+        }
+        if (numeric[column] && values[column] == null) {
+            values[column] = NumberToTextConverter.toText(numbers[column]);
+        }
+        return values[column];
+    }
+
+    boolean isNumeric(int column) {
+        return column < width && numeric[column];
+    }
+
+    /**
+     * 获取数字单元格的值，调用前先用isNumeric判断
+     */
+    double getNumber(int column) {
+        return numbers[column];
+    }
+}
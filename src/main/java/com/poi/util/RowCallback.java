@@ -0,0 +1,31 @@
+package com.poi.util;
+
+/**
+ * 流式读取的行回调，每解析完一行调用一次
+ */
+interface RowCallback {
+    /**
+     * 处理一行数据
+     *
+     * @param row 当前行，解析下一行时会被复用
+     * @throws Exception 处理失败时终止解析
+     */
+    void onRow(RawRow row) throws Exception;
+
+    /**
+     * 某一行的某一列是否需要，不需要的单元格解析器直接跳过，不生成值
+     *
+     * @param rowNum 行号
+     * @param column 列号
+     */
+    default boolean isColumnNeeded(int rowNum, int column) {
+        return true;
+    }
+
+    /**
+     * 需要的行是否都已经读完，返回true后解析器不再读取后面的行
+     */
+    default boolean isDone() {
+        return false;
+    }
+}
@@ -0,0 +1,211 @@
+package com.poi.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 把流式读取的行转换成pojo
+ * <p>
+ * 和excel2Pojo的约定一致：第0行是表标题，第1行是列名，从第2行开始是数据，
+ * 列名通过alias找到对应的属性名，找不到的列忽略。没有标题行的文件（例如csv）可以指定列名所在行。
+ * 可以只读一部分属性和数据行，不需要的单元格通过isColumnNeeded告诉解析器跳过。
+ */
+class RowPojoMapper<T> implements RowCallback {
+    private static final Logger logger = LoggerFactory.getLogger(RowPojoMapper.class);
+
+    /**
+     * xlsx中列名所在行
+     */
+    private static final int HEAD_ROW_NUM = 1;
+
+    /**
+     * 列名所在行，之前的行是标题
+     */
+    private final int headRowNum;
+
+    /**
+     * 列别名,格式要求：Map<"列名","类属性名">
+     */
+    private final LinkedHashMap<String, String> alias;
+
+    /**
+     * 类的映射计划
+     */
+    private final PojoMapping<T> mapping;
+
+    /**
+     * 接收转换好的对象，流水线导入时只用readHead和convert，为null
+     */
+    private final Consumer<? super T> consumer;
+
+    /**
+     * 只读取的属性，为null时读取全部属性
+     */
+    private final Set<String> projection;
+
+    /**
+     * 跳过的数据行数
+     */
+    private final long rowOffset;
+
+    /**
+     * 读到第几个数据行为止，不包括这一行
+     */
+    private final long rowEnd;
+
+    /**
+     * 每一列对应的属性读写器，没有对应属性的列为null
+     */
+    private PropertyAccessor[] columnAccessors;
+
+    /**
+     * 对应到属性的列数
+     */
+    private int mappedColumns;
+
+    /**
+     * 已经读到的数据行数，包括跳过的行
+     */
+    private long dataRows;
+
+    /**
+     * 已经转换的数据行数
+     */
+    private long rows;
+
+    RowPojoMapper(Class<T> clazz, LinkedHashMap<String, String> alias, Map<String, String> datePatterns, Consumer<? super T> consumer, int headRowNum) {
+        this(clazz, alias, datePatterns, consumer, headRowNum, null, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 按导入参数读取，只转换projection中的属性和rowOffset、rowLimit范围内的数据行
+     */
+    RowPojoMapper(Class<T> clazz, LinkedHashMap<String, String> alias, ImportConfig config, Consumer<? super T> consumer) {
+        this(clazz, alias, config.getDatePatterns(), consumer, HEAD_ROW_NUM, config.getProjection(), config.getRowOffset(), config.getRowLimit());
+    }
+
+    private RowPojoMapper(Class<T> clazz, LinkedHashMap<String, String> alias, Map<String, String> datePatterns, Consumer<? super T> consumer,
+                          int headRowNum, Set<String> projection, int rowOffset, int rowLimit) {
+        this.headRowNum = headRowNum;
+        this.alias = alias;
+        this.mapping = PojoMapping.of(clazz, alias.values(), datePatterns);
+        this.consumer = consumer;
+        this.projection = projection;
+        this.rowOffset = rowOffset;
+        this.rowEnd = (long) rowOffset + rowLimit;
+    }
+
+    @Override
+    public void onRow(RawRow row) throws Exception {
+        if (readHead(row)) {
+            return;
+        }
+        consumer.accept(convert(row));
+        rows++;
+    }
+
+    @Override
+    public boolean isColumnNeeded(int rowNum, int column) {
+        if (rowNum < headRowNum) {
+            return false;
+        }
+        if (rowNum == headRowNum || columnAccessors == null) {
+            return true;
+        }
+        //当前行还没有计入dataRows
+        if (dataRows < rowOffset) {
+            return false;
+        }
+        return column < columnAccessors.length && columnAccessors[column] != null;
+    }
+
+    @Override
+    public boolean isDone() {
+        return dataRows >= rowEnd;
+    }
+
+    /**
+     * 处理表标题和列名行
+     *
+     * @param row 行
+     * @return true表示这一行是表标题、列名或者范围外的数据行，不需要转换
+     */
+    boolean readHead(RawRow row) {
+        int rowNum = row.getRowNum();
+        if (rowNum < headRowNum) {
+            return true;
+        }
+        if (rowNum == headRowNum) {
+            //生成一个列-属性的对应关系
+            PropertyAccessor[] accessors = new PropertyAccessor[row.getWidth()];
+            for (int i = 0; i < accessors.length; i++) {
+                String cellValue = row.get(i);
+                PropertyAccessor accessor = cellValue == null ? null : mapping.getAccessor(alias.get(cellValue));
+                if (accessor != null && accessor.isWritable() && (projection == null || projection.contains(accessor.getName()))) {
+                    accessors[i] = accessor;
+                    mappedColumns++;
+                }
+            }
+            columnAccessors = accessors;
+            return true;
+        }
+        if (columnAccessors == null) {
+            throw new IllegalStateException("表格缺少列名行");
+        }
+        long index = dataRows++;
+        return index < rowOffset || index >= rowEnd;
+    }
+
+    /**
+     * 把一个数据行转换成对象，列名行读完后可以在多个线程中同时调用
+     *
+     * @param row 数据行
+     * @return
+     */
+    T convert(RawRow row) {
+        //创建一个T对象
+        T instance = mapping.newInstance();
+        PropertyAccessor[] accessors = columnAccessors;
+        for (int i = 0; i < accessors.length; i++) {
+            PropertyAccessor accessor = accessors[i];
+            if (accessor == null) {
+                continue;
+            }
+            try {
+                if (row.isNumeric(i) && accessor.getValueType() == PropertyAccessor.ValueType.DATE) {
+                    //日期单元格保存的是数字，直接转换成日期，不经过文本
+                    accessor.set(instance, accessor.fromExcelDate(row.getNumber(i)));
+                    continue;
+                }
+                String property = row.get(i);
+                if (property == null || "".equals(property)) {
+                    continue;
+                }
+                accessor.setText(instance, property);
+            } catch (Exception e) {
+                //单个单元格转换失败不影响其他单元格
+                logger.error("第{}行属性{}转换失败:{}", row.getRowNum(), accessor.getName(), row.get(i), e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 已经转换的数据行数
+     */
+    long getRows() {
+        return rows;
+    }
+
+    /**
+     * 对应到属性的列数
+     */
+    int getMappedColumns() {
+        return mappedColumns;
+    }
+}
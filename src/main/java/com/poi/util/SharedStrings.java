@@ -0,0 +1,48 @@
+package com.poi.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * 流式读取时按序号查找共享字符串
+ * <p>
+ * 默认把整个共享字符串表读进内存；唯一字符串很多时改用DiskSharedStrings，
+ * 字符串保存在临时文件中，内存中只有最近使用的一部分。
+ */
+interface SharedStrings extends Closeable {
+    /**
+     * 获取第index个共享字符串
+     *
+     * @param index 序号，从0开始
+     * @return
+     */
+    String get(int index) throws IOException;
+
+    /**
+     * 按导入参数打开xlsx文件的共享字符串表
+     *
+     * @param pkg    xlsx文件
+     * @param config 导入参数
+     * @return
+     * @throws Exception
+     */
+    static SharedStrings open(OPCPackage pkg, ImportConfig config) throws Exception {
+        if (config.isDiskSharedStrings()) {
+            return DiskSharedStrings.open(pkg, config.getSharedStringsCacheSize());
+        }
+        ReadOnlySharedStringsTable table = new ReadOnlySharedStringsTable(pkg);
+        return new SharedStrings() {
+            @Override
+            public String get(int index) {
+                return table.getEntryAt(index);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,551 @@
+package com.poi.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * xlsx第一张表的行索引，保存在文件旁边，分页读取时直接跳到请求的行附近
+ * <p>
+ * 第一次完整的流式读取时，每interval个row标签记录一个检查点：row标签在解压后的sheet xml中的字节偏移和行号，
+ * 同时记录根元素的开始标签（包含命名空间声明）和列名行。之后读取从第rowOffset个数据行开始的一页时，
+ * 先回放列名行，再找到不超过rowOffset的最近检查点，把根元素开始标签、sheetData标签和检查点之后的xml
+ * 接起来交给同一个SAX解析器。deflate不能直接定位，检查点之前的字节仍然要解压，但不再做xml解析和单元格转换。
+ * <p>
+ * 索引记录了xlsx文件的大小和修改时间，文件改变后索引失效，下一次完整读取时重新生成。
+ */
+public final class SheetIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SheetIndex.class);
+
+    /**
+     * 索引文件名是在xlsx文件名后面加上这个后缀
+     */
+    public static final String SUFFIX = ".rowidx";
+
+    private static final int MAGIC = 0x58504958;
+
+    private static final int VERSION = 1;
+
+    /**
+     * xlsx中列名所在行
+     */
+    private static final int HEAD_ROW_NUM = 1;
+
+    /**
+     * 生成索引时xlsx文件的大小
+     */
+    private final long fileLength;
+
+    /**
+     * 生成索引时xlsx文件的修改时间
+     */
+    private final long lastModified;
+
+    /**
+     * 每隔多少个row标签一个检查点
+     */
+    private final int interval;
+
+    /**
+     * 根元素的开始标签
+     */
+    private final byte[] rootTag;
+
+    /**
+     * 列名行是第几个row标签，从0开始
+     */
+    private final int headOrdinal;
+
+    /**
+     * 列名行每一列的文本
+     */
+    private final String[] head;
+
+    /**
+     * row标签的总数
+     */
+    private final long rowCount;
+
+    /**
+     * 第i个检查点是第i*interval个row标签，这一行的行号
+     */
+    private final int[] rowNums;
+
+    /**
+     * 第i个检查点的row标签在解压后的xml中的字节偏移
+     */
+    private final long[] offsets;
+
+    private SheetIndex(long fileLength, long lastModified, int interval, byte[] rootTag, int headOrdinal, String[] head,
+                       long rowCount, int[] rowNums, long[] offsets) {
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.interval = interval;
+        this.rootTag = rootTag;
+        this.headOrdinal = headOrdinal;
+        this.head = head;
+        this.rowCount = rowCount;
+        this.rowNums = rowNums;
+        this.offsets = offsets;
+    }
+
+    /**
+     * xlsx文件对应的索引文件
+     *
+     * @param file xlsx文件
+     */
+    public static Path sidecar(Path file) {
+        return file.resolveSibling(file.getFileName() + SUFFIX);
+    }
+
+    /**
+     * 读取xlsx文件旁边的索引
+     *
+     * @param file xlsx文件
+     * @return 没有索引或者文件已经改变时返回null
+     * @throws IOException
+     */
+    public static SheetIndex load(Path file) throws IOException {
+        Path sidecar = sidecar(file);
+        if (!Files.exists(sidecar)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            long fileLength = in.readLong();
+            long lastModified = in.readLong();
+            if (fileLength != Files.size(file) || lastModified != Files.getLastModifiedTime(file).toMillis()) {
+                return null;
+            }
+            int interval = in.readInt();
+            byte[] rootTag = new byte[in.readInt()];
+            in.readFully(rootTag);
+            int headOrdinal = in.readInt();
+            String[] head = new String[in.readInt()];
+            for (int i = 0; i < head.length; i++) {
+                if (in.readBoolean()) {
+                    head[i] = in.readUTF();
+                }
+            }
+            long rowCount = in.readLong();
+            int count = in.readInt();
+            int[] rowNums = new int[count];
+            long[] offsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                rowNums[i] = in.readInt();
+                offsets[i] = in.readLong();
+            }
+            return new SheetIndex(fileLength, lastModified, interval, rootTag, headOrdinal, head, rowCount, rowNums, offsets);
+        }
+    }
+
+    /**
+     * 把索引保存在xlsx文件旁边，已经有索引时覆盖
+     *
+     * @param file xlsx文件
+     * @throws IOException
+     */
+    public void save(Path file) throws IOException {
+        Path sidecar = sidecar(file);
+        //每次写入各用一个临时文件，同时生成同一个文件的索引时互不覆盖
+        Path tempFile = Files.createTempFile(sidecar.toAbsolutePath().getParent(), sidecar.getFileName().toString(), ".tmp");
+        try {
+            write(tempFile);
+            //写完再替换，读取方不会读到写了一半的索引
+            try {
+                Files.move(tempFile, sidecar, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, sidecar, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            //写入或替换失败时不留下临时文件
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * 按格式写入索引
+     */
+    private void write(Path tempFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeInt(interval);
+            out.writeInt(rootTag.length);
+            out.write(rootTag);
+            out.writeInt(headOrdinal);
+            out.writeInt(head.length);
+            for (String text : head) {
+                out.writeBoolean(text != null);
+                if (text != null) {
+                    out.writeUTF(text);
+                }
+            }
+            out.writeLong(rowCount);
+            out.writeInt(offsets.length);
+            for (int i = 0; i < offsets.length; i++) {
+                out.writeInt(rowNums[i]);
+                out.writeLong(offsets[i]);
+            }
+        }
+    }
+
+    /**
+     * 每隔多少行一个检查点
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * 列名行之后的数据行数，分页时可以用来计算总页数
+     */
+    public long getDataRowCount() {
+        return rowCount - headOrdinal - 1;
+    }
+
+    /**
+     * 检查点个数
+     */
+    public int getCheckpointCount() {
+        return offsets.length;
+    }
+
+    /**
+     * 按行索引读取xlsx文件的第一张表
+     * <p>
+     * 有可用的索引并且指定了rowOffset时从最近的检查点开始解析；读取全部行并且没有可用的索引时，
+     * 解析的同时生成索引保存在文件旁边；其他情况从头解析。
+     *
+     * @param file          xlsx文件
+     * @param pkg           打开的xlsx文件
+     * @param sharedStrings 共享字符串表
+     * @param config        导入参数
+     * @param callback      行回调
+     * @throws Exception 回调抛出的异常原样抛出
+     */
+    static void parse(Path file, OPCPackage pkg, SharedStrings sharedStrings, ImportConfig config, RowCallback callback) throws Exception {
+        SheetIndex index = null;
+        try {
+            index = load(file);
+        } catch (IOException e) {
+            logger.warn("行索引{}读取失败，从头解析", sidecar(file), e);
+        }
+        if (index != null) {
+            if (config.getRowOffset() == 0 || !index.parse(pkg, sharedStrings, config.getRowOffset(), callback)) {
+                XlsxSheetParser.parse(pkg, 0, sharedStrings, callback);
+            }
+            return;
+        }
+        if (config.getRowOffset() > 0 || config.getRowLimit() != Integer.MAX_VALUE) {
+            //只读一部分行时得不到完整的索引
+            XlsxSheetParser.parse(pkg, 0, sharedStrings, callback);
+            return;
+        }
+        Builder builder = new Builder(file, config.getIndexInterval());
+        try (InputStream sheet = XlsxSheetParser.openSheet(pkg, 0)) {
+            XlsxSheetParser.parse(builder.wrap(sheet), sharedStrings, builder.wrap(callback));
+        }
+        SheetIndex built = builder.build();
+        if (built == null) {
+            logger.warn("{}的sheet结构无法生成行索引", file);
+            return;
+        }
+        try {
+            built.save(file);
+        } catch (IOException e) {
+            logger.warn("行索引{}保存失败", sidecar(file), e);
+        }
+    }
+
+    /**
+     * 从不超过rowOffset的最近检查点开始解析
+     *
+     * @return false表示列名行之后还没有合适的检查点，需要从头解析
+     */
+    private boolean parse(OPCPackage pkg, SharedStrings sharedStrings, long rowOffset, RowCallback callback) throws Exception {
+        //第i个检查点之前有i*interval-headOrdinal-1个数据行
+        long candidate = Math.min((rowOffset + headOrdinal + 1) / interval, offsets.length - 1);
+        int checkpoint = (int) candidate;
+        long skippedRows = (long) checkpoint * interval - headOrdinal - 1;
+        if (checkpoint < 0 || skippedRows < 0) {
+            return false;
+        }
+        RawRow row = new RawRow();
+        row.reset(HEAD_ROW_NUM);
+        for (int i = 0; i < head.length; i++) {
+            if (head[i] != null) {
+                row.set(i, head[i]);
+            }
+        }
+        callback.onRow(row);
+        //行回调自己给数据行计数，跳过的行用空行补上，不解析也不转换
+        for (long i = 0; i < skippedRows && !callback.isDone(); i++) {
+            row.reset(HEAD_ROW_NUM + 1);
+            callback.onRow(row);
+        }
+        if (callback.isDone()) {
+            return true;
+        }
+        try (InputStream sheet = XlsxSheetParser.openSheet(pkg, 0)) {
+            skipFully(sheet, offsets[checkpoint]);
+            ByteArrayOutputStream prefix = new ByteArrayOutputStream(rootTag.length + 16);
+            prefix.write(rootTag);
+            prefix.write("<sheetData>".getBytes(StandardCharsets.UTF_8));
+            InputStream xml = new SequenceInputStream(new ByteArrayInputStream(prefix.toByteArray()), sheet);
+            XlsxSheetParser.parse(xml, sharedStrings, callback, rowNums[checkpoint]);
+        }
+        return true;
+    }
+
+    /**
+     * 解压并丢弃前面的字节
+     */
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = bytes;
+        while (remaining > 0) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (n < 0) {
+                throw new EOFException("行索引超出sheet的长度");
+            }
+            remaining -= n;
+        }
+    }
+
+    /**
+     * 在第一次完整读取时生成索引：xml流经过时扫描row标签的字节偏移，行回调记录行号和列名行
+     */
+    static final class Builder {
+        private static final byte[] ROW_TAG = {'<', 'r', 'o', 'w'};
+
+        private static final int ROOT_SEARCH = 0;
+        private static final int ROOT_LT = 1;
+        private static final int ROOT_CAPTURE = 2;
+        private static final int ROOT_DONE = 3;
+
+        private final long fileLength;
+
+        private final long lastModified;
+
+        private final int interval;
+
+        private final ByteArrayOutputStream rootTag = new ByteArrayOutputStream();
+
+        private int rootState = ROOT_SEARCH;
+
+        /**
+         * 已经扫描的字节数
+         */
+        private long position;
+
+        /**
+         * 已经匹配的"<row"字节数
+         */
+        private int match;
+
+        /**
+         * 正在匹配的标签的偏移
+         */
+        private long tagStart;
+
+        /**
+         * 扫描到的row标签个数
+         */
+        private long tagCount;
+
+        /**
+         * 行回调收到的行数
+         */
+        private long ordinal;
+
+        private int headOrdinal = -1;
+
+        private String[] head;
+
+        private final List<Long> offsets = new ArrayList<>();
+
+        private final List<Integer> rowNums = new ArrayList<>();
+
+        Builder(Path file, int interval) throws IOException {
+            this.fileLength = Files.size(file);
+            this.lastModified = Files.getLastModifiedTime(file).toMillis();
+            this.interval = interval;
+        }
+
+        /**
+         * 包装sheet的xml流，读取时扫描row标签
+         */
+        InputStream wrap(InputStream sheet) {
+            return new FilterInputStream(sheet) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b >= 0) {
+                        scan((byte) b);
+                    }
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = super.read(b, off, len);
+                    for (int i = 0; i < n; i++) {
+                        scan(b[off + i]);
+                    }
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) throws IOException {
+                    //跳过的字节也要扫描
+                    byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 1))];
+                    long skipped = 0;
+                    while (skipped < n) {
+                        int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                        if (read < 0) {
+                            break;
+                        }
+                        skipped += read;
+                    }
+                    return skipped;
+                }
+
+                @Override
+                public boolean markSupported() {
+                    return false;
+                }
+            };
+        }
+
+        /**
+         * 包装行回调，记录检查点的行号和列名行
+         */
+        RowCallback wrap(RowCallback callback) {
+            return new RowCallback() {
+                @Override
+                public void onRow(RawRow row) throws Exception {
+                    if (ordinal % interval == 0) {
+                        rowNums.add(row.getRowNum());
+                    }
+                    if (headOrdinal < 0 && row.getRowNum() == HEAD_ROW_NUM) {
+                        headOrdinal = (int) ordinal;
+                        head = new String[row.getWidth()];
+                        for (int i = 0; i < head.length; i++) {
+                            head[i] = row.get(i);
+                        }
+                    }
+                    ordinal++;
+                    callback.onRow(row);
+                }
+
+                @Override
+                public boolean isColumnNeeded(int rowNum, int column) {
+                    //列名行要完整记录
+                    return rowNum == HEAD_ROW_NUM || callback.isColumnNeeded(rowNum, column);
+                }
+
+                @Override
+                public boolean isDone() {
+                    return callback.isDone();
+                }
+            };
+        }
+
+        private void scan(byte b) {
+            if (rootState != ROOT_DONE) {
+                scanRoot(b);
+            } else {
+                if (match == ROW_TAG.length) {
+                    //排除rowBreaks等以row开头的标签
+                    if (b == ' ' || b == '>' || b == '/' || b == '\t' || b == '\r' || b == '\n') {
+                        if (tagCount % interval == 0) {
+                            offsets.add(tagStart);
+                        }
+                        tagCount++;
+                    }
+                    match = 0;
+                }
+                if (b == '<') {
+                    match = 1;
+                    tagStart = position;
+                } else if (match > 0 && b == ROW_TAG[match]) {
+                    match++;
+                } else {
+                    match = 0;
+                }
+            }
+            position++;
+        }
+
+        /**
+         * 记录根元素的开始标签，跳过xml声明和注释
+         */
+        private void scanRoot(byte b) {
+            switch (rootState) {
+                case ROOT_SEARCH:
+                    if (b == '<') {
+                        rootState = ROOT_LT;
+                    }
+                    break;
+                case ROOT_LT:
+                    if (b == '?' || b == '!') {
+                        rootState = ROOT_SEARCH;
+                    } else {
+                        rootTag.write('<');
+                        rootTag.write(b);
+                        rootState = ROOT_CAPTURE;
+                    }
+                    break;
+                default:
+                    rootTag.write(b);
+                    if (b == '>') {
+                        rootState = ROOT_DONE;
+                    }
+                    break;
+            }
+        }
+
+        /**
+         * 生成索引
+         *
+         * @return 没有列名行，或者扫描到的row标签和解析出的行对不上（例如带命名空间前缀的标签）时返回null
+         */
+        SheetIndex build() {
+            if (rootState != ROOT_DONE || headOrdinal < 0 || tagCount != ordinal || offsets.size() != rowNums.size()) {
+                return null;
+            }
+            int[] rowNumArray = new int[rowNums.size()];
+            long[] offsetArray = new long[offsets.size()];
+            for (int i = 0; i < offsetArray.length; i++) {
+                rowNumArray[i] = rowNums.get(i);
+                offsetArray[i] = offsets.get(i);
+            }
+            return new SheetIndex(fileLength, lastModified, interval, rootTag.toByteArray(), headOrdinal, head,
+                    ordinal, rowNumArray, offsetArray);
+        }
+    }
+}
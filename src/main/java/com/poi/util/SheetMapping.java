@@ -0,0 +1,103 @@
+package com.poi.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 多张表导入时一张表的映射：按名称或序号指定表，表中的行转换成clazz的对象
+ * <p>
+ * 同一张表可以对应多个映射，每个映射各自解析一次。结果按映射对象查找，见SheetResults。
+ *
+ * @param <T> 对象类型
+ */
+public final class SheetMapping<T> {
+    /**
+     * 表名，按序号指定时为null
+     */
+    private final String sheetName;
+
+    /**
+     * 第几张表，从0开始，按名称指定时为-1
+     */
+    private final int sheetIndex;
+
+    private final Class<T> clazz;
+
+    /**
+     * 列别名,格式要求：Map<"列名","类属性名">
+     */
+    private final LinkedHashMap<String, String> alias;
+
+    private SheetMapping(String sheetName, int sheetIndex, Class<T> clazz, LinkedHashMap<String, String> alias) {
+        if (clazz == null || alias == null) {
+            throw new IllegalArgumentException("clazz和alias不能为null");
+        }
+        this.sheetName = sheetName;
+        this.sheetIndex = sheetIndex;
+        this.clazz = clazz;
+        this.alias = new LinkedHashMap<>(alias);
+    }
+
+    /**
+     * 按表名指定
+     *
+     * @param sheetName 表名
+     * @param clazz     类型
+     * @param alias     列别名,格式要求：Map<"列名","类属性名">
+     */
+    public static <T> SheetMapping<T> of(String sheetName, Class<T> clazz, LinkedHashMap<String, String> alias) {
+        if (sheetName == null) {
+            throw new IllegalArgumentException("sheetName不能为null");
+        }
+        return new SheetMapping<>(sheetName, -1, clazz, alias);
+    }
+
+    /**
+     * 按序号指定
+     *
+     * @param sheetIndex 第几张表，从0开始
+     * @param clazz      类型
+     * @param alias      列别名,格式要求：Map<"列名","类属性名">
+     */
+    public static <T> SheetMapping<T> of(int sheetIndex, Class<T> clazz, LinkedHashMap<String, String> alias) {
+        if (sheetIndex < 0) {
+            throw new IllegalArgumentException("sheetIndex不能小于0:" + sheetIndex);
+        }
+        return new SheetMapping<>(null, sheetIndex, clazz, alias);
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public Class<T> getClazz() {
+        return clazz;
+    }
+
+    public LinkedHashMap<String, String> getAlias() {
+        return new LinkedHashMap<>(alias);
+    }
+
+    /**
+     * 在工作簿的表名中找到这张表的序号
+     *
+     * @param sheetNames 按顺序的所有表名
+     * @return
+     */
+    int indexIn(List<String> sheetNames) {
+        int index = sheetName == null ? sheetIndex : sheetNames.indexOf(sheetName);
+        if (index < 0 || index >= sheetNames.size()) {
+            throw new IllegalArgumentException("sheet不存在:" + this);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return sheetName != null ? sheetName : String.valueOf(sheetIndex);
+    }
+}
@@ -0,0 +1,57 @@
+package com.poi.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多张表导入的结果，每个SheetMapping对应一个对象数组
+ */
+public final class SheetResults {
+    /**
+     * 按映射对象本身查找，同一张表的两个映射各有结果
+     */
+    private final Map<SheetMapping<?>, List<?>> results = new IdentityHashMap<>();
+
+    /**
+     * 按导入时的顺序
+     */
+    private final List<SheetMapping<?>> sheets = new ArrayList<>();
+
+    SheetResults() {
+    }
+
+    void put(SheetMapping<?> sheet, List<?> result) {
+        if (results.put(sheet, result) == null) {
+            sheets.add(sheet);
+        }
+    }
+
+    /**
+     * 获取一张表的导入结果
+     *
+     * @param sheet 导入时传入的映射
+     * @return 没有导入这个映射时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(SheetMapping<T> sheet) {
+        //放入时结果的类型就是sheet.getClazz()
+        return (List<T>) results.get(sheet);
+    }
+
+    /**
+     * 按导入时的顺序返回所有映射
+     */
+    public List<SheetMapping<?>> getSheets() {
+        return Collections.unmodifiableList(sheets);
+    }
+
+    /**
+     * 导入的表数
+     */
+    public int size() {
+        return sheets.size();
+    }
+}
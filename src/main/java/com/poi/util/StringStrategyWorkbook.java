@@ -0,0 +1,257 @@
+package com.poi.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.streaming.GZIPSheetDataWriter;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按列选择文本写法的SXSSFWorkbook
+ * <p>
+ * 每张表的临时文件由自己的SheetDataWriter写出，文本单元格按列的写法写成inlineStr或者共享字符串序号，
+ * 其他单元格仍然交给SXSSF。共享的文本先在整个工作簿的字典中查找序号，
+ * 重复的值不再创建CTRst，也不再经过共享字符串表的xml比较。
+ * 共享字符串的序号按写出的先后分配，多张表必须按顺序写出，生成的文件才是确定的。
+ */
+final class StringStrategyWorkbook extends SXSSFWorkbook {
+    /**
+     * 每一列的文本写法，超出的列直接写在单元格中
+     */
+    private final ExportConfig.StringStrategy[] strategies;
+
+    /**
+     * AUTO在每张表中抽样的文本个数
+     */
+    private final int sampleSize;
+
+    /**
+     * 第一个数据行，之前的标题和列名行不算AUTO的样本
+     */
+    private final int firstDataRow;
+
+    /**
+     * 文本到共享字符串序号的字典
+     */
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    /**
+     * @param template            模板工作簿，为null时创建空的工作簿
+     * @param rowAccessWindowSize 内存中保留的行数
+     * @param compressTmpFiles    临时文件是否使用gzip压缩
+     * @param strategies          每一列的文本写法
+     * @param sampleSize          AUTO在每张表中抽样的文本个数
+     * @param firstDataRow        第一个数据行
+     */
+    StringStrategyWorkbook(XSSFWorkbook template, int rowAccessWindowSize, boolean compressTmpFiles,
+                           ExportConfig.StringStrategy[] strategies, int sampleSize, int firstDataRow) {
+        super(template, rowAccessWindowSize, compressTmpFiles, true);
+        this.strategies = strategies.clone();
+        this.sampleSize = sampleSize;
+        this.firstDataRow = firstDataRow;
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        StringCells strings = new StringCells();
+        return isCompressTempFiles() ? new GzipWriter(getSharedStringSource(), strings) : new PlainWriter(getSharedStringSource(), strings);
+    }
+
+    /**
+     * 查找文本在共享字符串表中的序号，不存在时添加
+     */
+    private synchronized int sharedIndex(String text) {
+        Integer index = dictionary.get(text);
+        if (index == null) {
+            index = getSharedStringSource().addEntry(new XSSFRichTextString(text).getCTRst());
+            dictionary.put(text, index);
+        }
+        return index;
+    }
+
+    /**
+     * 一张表的文本单元格写法，AUTO列在这张表中抽样后确定
+     */
+    private final class StringCells {
+        /**
+         * 这张表中每一列实际使用的写法
+         */
+        private final ExportConfig.StringStrategy[] resolved = strategies.clone();
+
+        /**
+         * AUTO列抽样到的不同文本
+         */
+        private final Map<Integer, Set<String>> samples = new HashMap<>();
+
+        /**
+         * AUTO列已经抽样的文本个数
+         */
+        private final int[] sampled = new int[strategies.length];
+
+        /**
+         * 写出文本单元格
+         *
+         * @param out    临时文件
+         * @param column 列号
+         * @param cell   单元格
+         * @return 不是文本单元格时返回false，交给SXSSF写出
+         */
+        boolean write(Writer out, int column, Cell cell) throws IOException {
+            if (cell.getCellTypeEnum() != CellType.STRING) {
+                return false;
+            }
+            String text = cell.getStringCellValue();
+            out.write("<c r=\"");
+            out.write(new CellReference(cell.getRowIndex(), column).formatAsString());
+            out.write('"');
+            short style = cell.getCellStyle().getIndex();
+            if (style != 0) {
+                out.write(" s=\"");
+                out.write(Integer.toString(style & 0xffff));
+                out.write('"');
+            }
+            if (shared(column, cell.getRowIndex(), text)) {
+                out.write(" t=\"s\"><v>");
+                out.write(Integer.toString(sharedIndex(text)));
+                out.write("</v></c>");
+            } else {
+                out.write(" t=\"inlineStr\"><is><t");
+                if (!text.isEmpty() && (Character.isWhitespace(text.charAt(0))
+                        || Character.isWhitespace(text.charAt(text.length() - 1)))) {
+                    out.write(" xml:space=\"preserve\"");
+                }
+                out.write('>');
+                writeEscaped(out, text);
+                out.write("</t></is></c>");
+            }
+            return true;
+        }
+
+        /**
+         * 这一列的文本是否写进共享字符串表
+         */
+        private boolean shared(int column, int rowIndex, String text) {
+            if (column >= resolved.length) {
+                return false;
+            }
+            if (resolved[column] == ExportConfig.StringStrategy.AUTO && rowIndex >= firstDataRow) {
+                //抽样期间直接写在单元格中，抽够后不同的值不超过一半时改为共享，之后的值才进入共享字符串表
+                Set<String> values = samples.computeIfAbsent(column, k -> new HashSet<>());
+                values.add(text);
+                if (++sampled[column] >= sampleSize) {
+                    resolved[column] = values.size() * 2 <= sampleSize ? ExportConfig.StringStrategy.SHARED : ExportConfig.StringStrategy.INLINE;
+                    samples.remove(column);
+                }
+                return false;
+            }
+            //标题和列名行不算样本，列的写法确定之前直接写在单元格中
+            return resolved[column] == ExportConfig.StringStrategy.SHARED;
+        }
+    }
+
+    /**
+     * 按xml转义写出文本，和SXSSF一样把xml不允许的控制字符替换成问号
+     */
+    private static void writeEscaped(Writer out, String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    out.write("&lt;");
+                    break;
+                case '>':
+                    out.write("&gt;");
+                    break;
+                case '&':
+                    out.write("&amp;");
+                    break;
+                case '"':
+                    out.write("&quot;");
+                    break;
+                case '\n':
+                    out.write("&#xa;");
+                    break;
+                case '\r':
+                    out.write("&#xd;");
+                    break;
+                case '\t':
+                    out.write("&#x9;");
+                    break;
+                default:
+                    out.write(c < ' ' || c == '\uFFFE' || c == '\uFFFF' ? '?' : c);
+            }
+        }
+    }
+
+    /**
+     * 不压缩的临时文件
+     */
+    private static final class PlainWriter extends SheetDataWriter {
+        private final StringCells strings;
+
+        /**
+         * 父类构造时创建的Writer，不能有初始值，否则会在父类构造之后被覆盖
+         */
+        private Writer out;
+
+        PlainWriter(SharedStringsTable sharedStrings, StringCells strings) throws IOException {
+            super(sharedStrings);
+            this.strings = strings;
+        }
+
+        @Override
+        public Writer createWriter(File fd) throws IOException {
+            out = super.createWriter(fd);
+            return out;
+        }
+
+        @Override
+        public void writeCell(int columnIndex, Cell cell) throws IOException {
+            if (cell == null || !strings.write(out, columnIndex, cell)) {
+                super.writeCell(columnIndex, cell);
+            }
+        }
+    }
+
+    /**
+     * gzip压缩的临时文件
+     */
+    private static final class GzipWriter extends GZIPSheetDataWriter {
+        private final StringCells strings;
+
+        /**
+         * 父类构造时创建的Writer，不能有初始值，否则会在父类构造之后被覆盖
+         */
+        private Writer out;
+
+        GzipWriter(SharedStringsTable sharedStrings, StringCells strings) throws IOException {
+            super(sharedStrings);
+            this.strings = strings;
+        }
+
+        @Override
+        public Writer createWriter(File fd) throws IOException {
+            out = super.createWriter(fd);
+            return out;
+        }
+
+        @Override
+        public void writeCell(int columnIndex, Cell cell) throws IOException {
+            if (cell == null || !strings.write(out, columnIndex, cell)) {
+                super.writeCell(columnIndex, cell);
+            }
+        }
+    }
+}
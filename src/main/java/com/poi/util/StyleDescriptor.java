@@ -0,0 +1,168 @@
+package com.poi.util;
+
+import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.HorizontalAlignment;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.VerticalAlignment;
+
+import java.util.Objects;
+
+/**
+ * 单元格格式的描述，不可变，可以作为StyleRegistry的键
+ * <p>
+ * 只描述导出用到的属性：字体、对齐、四周边框和数据格式。
+ * 修改属性时返回新的描述，相同的描述在一个工作簿中只创建一次格式。
+ */
+public final class StyleDescriptor {
+    /**
+     * 表头格式，宋体20号加粗
+     */
+    public static final StyleDescriptor TITLE = new StyleDescriptor("宋体", (short) 20, true, false,
+            IndexedColors.BLACK.index, HorizontalAlignment.CENTER, VerticalAlignment.CENTER, BorderStyle.THIN, null);
+
+    /**
+     * 列名格式，Times New Roman 15号加粗暗红色
+     */
+    public static final StyleDescriptor COLUMN_NAME = new StyleDescriptor("Times New Roman", (short) 15, true, false,
+            IndexedColors.DARK_RED.index, HorizontalAlignment.CENTER, VerticalAlignment.CENTER, BorderStyle.THIN, null);
+
+    /**
+     * 数据单元格格式，宋体11号
+     */
+    public static final StyleDescriptor CELL = new StyleDescriptor("宋体", (short) 11, false, false,
+            IndexedColors.BLACK.index, HorizontalAlignment.CENTER, VerticalAlignment.CENTER, BorderStyle.THIN, null);
+
+    private final String fontName;
+    private final short fontHeightInPoints;
+    private final boolean bold;
+    private final boolean italic;
+    private final short fontColor;
+    private final HorizontalAlignment alignment;
+    private final VerticalAlignment verticalAlignment;
+    private final BorderStyle border;
+
+    /**
+     * Excel的数据格式，为null时使用常规格式
+     */
+    private final String dataFormat;
+
+    private StyleDescriptor(String fontName, short fontHeightInPoints, boolean bold, boolean italic, short fontColor,
+                            HorizontalAlignment alignment, VerticalAlignment verticalAlignment, BorderStyle border, String dataFormat) {
+        this.fontName = Objects.requireNonNull(fontName, "fontName");
+        this.fontHeightInPoints = fontHeightInPoints;
+        this.bold = bold;
+        this.italic = italic;
+        this.fontColor = fontColor;
+        this.alignment = Objects.requireNonNull(alignment, "alignment");
+        this.verticalAlignment = Objects.requireNonNull(verticalAlignment, "verticalAlignment");
+        this.border = Objects.requireNonNull(border, "border");
+        this.dataFormat = dataFormat;
+    }
+
+    public StyleDescriptor withFont(String fontName, int fontHeightInPoints) {
+        if (fontHeightInPoints < 1 || fontHeightInPoints > 409) {
+            throw new IllegalArgumentException("字号必须在1到409之间:" + fontHeightInPoints);
+        }
+        return new StyleDescriptor(fontName, (short) fontHeightInPoints, bold, italic, fontColor, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    public StyleDescriptor withBold(boolean bold) {
+        return new StyleDescriptor(fontName, fontHeightInPoints, bold, italic, fontColor, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    public StyleDescriptor withItalic(boolean italic) {
+        return new StyleDescriptor(fontName, fontHeightInPoints, bold, italic, fontColor, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    public StyleDescriptor withFontColor(IndexedColors fontColor) {
+        return new StyleDescriptor(fontName, fontHeightInPoints, bold, italic, fontColor.index, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    public StyleDescriptor withAlignment(HorizontalAlignment alignment, VerticalAlignment verticalAlignment) {
+        return new StyleDescriptor(fontName, fontHeightInPoints, bold, italic, fontColor, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    public StyleDescriptor withBorder(BorderStyle border) {
+        return new StyleDescriptor(fontName, fontHeightInPoints, bold, italic, fontColor, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    /**
+     * 设置Excel的数据格式，例如"yyyy-mm-dd"和"0.00"
+     *
+     * @param dataFormat 数据格式，为null时使用常规格式
+     */
+    public StyleDescriptor withDataFormat(String dataFormat) {
+        return new StyleDescriptor(fontName, fontHeightInPoints, bold, italic, fontColor, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    /**
+     * 只保留字体属性的描述，作为字体的键
+     */
+    StyleDescriptor font() {
+        return new StyleDescriptor(fontName, fontHeightInPoints, bold, italic, fontColor,
+                HorizontalAlignment.GENERAL, VerticalAlignment.BOTTOM, BorderStyle.NONE, null);
+    }
+
+    public String getFontName() {
+        return fontName;
+    }
+
+    public short getFontHeightInPoints() {
+        return fontHeightInPoints;
+    }
+
+    public boolean isBold() {
+        return bold;
+    }
+
+    public boolean isItalic() {
+        return italic;
+    }
+
+    public short getFontColor() {
+        return fontColor;
+    }
+
+    public HorizontalAlignment getAlignment() {
+        return alignment;
+    }
+
+    public VerticalAlignment getVerticalAlignment() {
+        return verticalAlignment;
+    }
+
+    public BorderStyle getBorder() {
+        return border;
+    }
+
+    public String getDataFormat() {
+        return dataFormat;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StyleDescriptor)) {
+            return false;
+        }
+        StyleDescriptor that = (StyleDescriptor) o;
+        return fontHeightInPoints == that.fontHeightInPoints && bold == that.bold && italic == that.italic
+                && fontColor == that.fontColor && fontName.equals(that.fontName) && alignment == that.alignment
+                && verticalAlignment == that.verticalAlignment && border == that.border
+                && Objects.equals(dataFormat, that.dataFormat);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fontName, fontHeightInPoints, bold, italic, fontColor, alignment, verticalAlignment, border, dataFormat);
+    }
+
+    @Override
+    public String toString() {
+        return "StyleDescriptor [fontName=" + fontName + ", fontHeightInPoints=" + fontHeightInPoints + ", bold=" + bold
+                + ", italic=" + italic + ", fontColor=" + fontColor + ", alignment=" + alignment
+                + ", verticalAlignment=" + verticalAlignment + ", border=" + border + ", dataFormat=" + dataFormat + "]";
+    }
+}
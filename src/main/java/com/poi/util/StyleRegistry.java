@@ -0,0 +1,91 @@
+package com.poi.util;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DataFormat;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 一个工作簿的单元格格式缓存
+ * <p>
+ * 按StyleDescriptor创建格式，相同的描述只创建一次，字体相同的格式共用一个字体，
+ * 不会因为逐列、逐个单元格创建格式而超过Excel的格式数量上限。
+ * 并行生成多张表时可能同时获取格式，所以方法都加锁。
+ */
+public final class StyleRegistry {
+    private final Workbook workbook;
+
+    private final Map<StyleDescriptor, CellStyle> styles = new HashMap<>();
+
+    private final Map<StyleDescriptor, Font> fonts = new HashMap<>();
+
+    /**
+     * 数据格式，第一次需要时创建
+     */
+    private DataFormat dataFormat;
+
+    public StyleRegistry(Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    public Workbook getWorkbook() {
+        return workbook;
+    }
+
+    /**
+     * 获取描述对应的格式，不存在时创建
+     *
+     * @param descriptor 格式描述
+     * @return 这个工作簿中的格式，不要再修改
+     */
+    public synchronized CellStyle get(StyleDescriptor descriptor) {
+        CellStyle style = styles.get(descriptor);
+        if (style == null) {
+            style = create(descriptor);
+            styles.put(descriptor, style);
+        }
+        return style;
+    }
+
+    /**
+     * 已经创建的格式数量
+     */
+    public synchronized int size() {
+        return styles.size();
+    }
+
+    private CellStyle create(StyleDescriptor descriptor) {
+        CellStyle style = workbook.createCellStyle();
+        style.setAlignment(descriptor.getAlignment());
+        style.setVerticalAlignment(descriptor.getVerticalAlignment());
+        style.setBorderBottom(descriptor.getBorder());
+        style.setBorderLeft(descriptor.getBorder());
+        style.setBorderTop(descriptor.getBorder());
+        style.setBorderRight(descriptor.getBorder());
+        style.setFont(font(descriptor.font()));
+        if (descriptor.getDataFormat() != null) {
+            if (dataFormat == null) {
+                dataFormat = workbook.createDataFormat();
+            }
+            style.setDataFormat(dataFormat.getFormat(descriptor.getDataFormat()));
+        }
+        return style;
+    }
+
+    private Font font(StyleDescriptor key) {
+        Font font = fonts.get(key);
+        if (font == null) {
+            font = workbook.createFont();
+            font.setFontName(key.getFontName());
+            font.setFontHeightInPoints(key.getFontHeightInPoints());
+            font.setItalic(key.isItalic());
+            font.setBold(key.isBold());
+            font.setColor(key.getFontColor());
+            fonts.put(key, font);
+        }
+        return font;
+    }
+}
@@ -0,0 +1,236 @@
+package com.poi.util;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.eventusermodel.MissingRecordAwareHSSFListener;
+import org.apache.poi.hssf.eventusermodel.dummyrecord.LastCellOfRowDummyRecord;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于HSSF事件模型的xls解析器，逐行把单元格交给RowCallback
+ * <p>
+ * 不创建HSSFWorkbook，内存中只保留当前行和共享字符串表。
+ * 数字保留原值，公式取缓存的结果，错误单元格当作空值，和XlsxSheetParser的行为一致。
+ * 回调不需要的单元格不取值，回调读够行后停止处理后面的记录。
+ */
+final class XlsSheetParser implements HSSFListener {
+    /**
+     * 读完目标sheet、回调读够行或者回调失败时终止事件处理
+     */
+    private static final class StopParsing extends RuntimeException {
+        StopParsing() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final int sheetIndex;
+
+    private final RowCallback callback;
+
+    private final RawRow row = new RawRow();
+
+    private SSTRecord sharedStrings;
+
+    /**
+     * BOF的嵌套层数，表中嵌入的图表有自己的BOF和EOF
+     */
+    private int depth;
+
+    /**
+     * 当前是第几张表，还没有进入表时为-1
+     */
+    private int currentSheet = -1;
+
+    private boolean inSheet;
+
+    /**
+     * 当前行是否已经有单元格
+     */
+    private boolean rowStarted;
+
+    /**
+     * 字符串结果的公式所在的行和列，结果在随后的StringRecord中
+     */
+    private int formulaRow = -1;
+    private int formulaColumn = -1;
+
+    /**
+     * 回调抛出的异常
+     */
+    private Exception failure;
+
+    private XlsSheetParser(int sheetIndex, RowCallback callback) {
+        this.sheetIndex = sheetIndex;
+        this.callback = callback;
+    }
+
+    /**
+     * 解析指定的sheet
+     *
+     * @param file       xls文件
+     * @param sheetIndex 第几张sheet，从0开始
+     * @param callback   行回调
+     * @throws Exception 回调抛出的异常原样抛出
+     */
+    static void parse(File file, int sheetIndex, RowCallback callback) throws Exception {
+        XlsSheetParser parser = new XlsSheetParser(sheetIndex, callback);
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(new MissingRecordAwareHSSFListener(parser));
+        //只读打开，按需读取文件中的块，不把整个文件读进内存
+        try (NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true)) {
+            new HSSFEventFactory().processWorkbookEvents(request, fs.getRoot());
+        } catch (StopParsing e) {
+            if (parser.failure != null) {
+                throw parser.failure;
+            }
+            return;
+        }
+        throw new IllegalArgumentException("sheet不存在:" + sheetIndex);
+    }
+
+    /**
+     * 按顺序读取所有sheet的名称，读完工作簿部分就停止，不读取sheet的内容
+     *
+     * @param file xls文件
+     * @return
+     * @throws IOException
+     */
+    static List<String> sheetNames(File file) throws IOException {
+        List<String> names = new ArrayList<>();
+        HSSFRequest request = new HSSFRequest();
+        request.addListenerForAllRecords(new AbortableHSSFListener() {
+            @Override
+            public short abortableProcessRecord(Record record) {
+                if (record.getSid() == BoundSheetRecord.sid) {
+                    names.add(((BoundSheetRecord) record).getSheetname());
+                }
+                //第一个EOF是工作簿部分的结束
+                return record.getSid() == EOFRecord.sid ? (short) 1 : 0;
+            }
+        });
+        try (NPOIFSFileSystem fs = new NPOIFSFileSystem(file, true)) {
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs.getRoot());
+        } catch (HSSFUserException e) {
+            throw new IOException("解析excel失败", e);
+        }
+        return names;
+    }
+
+    @Override
+    public void processRecord(Record record) {
+        switch (record.getSid()) {
+            case BOFRecord.sid:
+                if (++depth == 1 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                    inSheet = ++currentSheet == sheetIndex;
+                }
+                return;
+            case EOFRecord.sid:
+                if (--depth == 0 && inSheet) {
+                    endRow();
+                    throw new StopParsing();
+                }
+                return;
+            case SSTRecord.sid:
+                sharedStrings = (SSTRecord) record;
+                return;
+            default:
+                break;
+        }
+        if (!inSheet || depth != 1) {
+            return;
+        }
+        if (record instanceof LastCellOfRowDummyRecord) {
+            if (rowStarted && ((LastCellOfRowDummyRecord) record).getRow() == row.getRowNum()) {
+                endRow();
+            }
+        } else if (record instanceof LabelSSTRecord) {
+            LabelSSTRecord label = (LabelSSTRecord) record;
+            if (startCell(label.getRow(), label.getColumn())) {
+                row.set(label.getColumn(), sharedStrings.getString(label.getSSTIndex()).getString());
+            }
+        } else if (record instanceof LabelRecord) {
+            LabelRecord label = (LabelRecord) record;
+            if (startCell(label.getRow(), label.getColumn())) {
+                row.set(label.getColumn(), label.getValue());
+            }
+        } else if (record instanceof NumberRecord) {
+            NumberRecord number = (NumberRecord) record;
+            if (startCell(number.getRow(), number.getColumn())) {
+                row.setNumber(number.getColumn(), number.getValue());
+            }
+        } else if (record instanceof BoolErrRecord) {
+            BoolErrRecord boolErr = (BoolErrRecord) record;
+            if (boolErr.isBoolean() && startCell(boolErr.getRow(), boolErr.getColumn())) {
+                row.set(boolErr.getColumn(), boolErr.getBooleanValue() ? "TRUE" : "FALSE");
+            }
+        } else if (record instanceof FormulaRecord) {
+            FormulaRecord formula = (FormulaRecord) record;
+            if (!startCell(formula.getRow(), formula.getColumn())) {
+                return;
+            }
+            if (formula.hasCachedResultString()) {
+                formulaRow = formula.getRow();
+                formulaColumn = formula.getColumn();
+            } else if (formula.getCachedResultType() == CellType.NUMERIC.getCode()) {
+                row.setNumber(formula.getColumn(), formula.getValue());
+            } else if (formula.getCachedResultType() == CellType.BOOLEAN.getCode()) {
+                row.set(formula.getColumn(), formula.getCachedBooleanValue() ? "TRUE" : "FALSE");
+            }
+        } else if (record instanceof StringRecord) {
+            if (formulaRow == row.getRowNum() && rowStarted) {
+                row.set(formulaColumn, ((StringRecord) record).getString());
+            }
+            formulaRow = -1;
+        }
+    }
+
+    /**
+     * 单元格属于新的一行时先结束上一行
+     *
+     * @return 回调是否需要这个单元格
+     */
+    private boolean startCell(int rowNum, int column) {
+        if (!rowStarted || row.getRowNum() != rowNum) {
+            endRow();
+            row.reset(rowNum);
+            rowStarted = true;
+        }
+        return callback.isColumnNeeded(rowNum, column);
+    }
+
+    private void endRow() {
+        if (!rowStarted) {
+            return;
+        }
+        rowStarted = false;
+        try {
+            callback.onRow(row);
+        } catch (Exception e) {
+            failure = e;
+            throw new StopParsing();
+        }
+        if (callback.isDone()) {
+            throw new StopParsing();
+        }
+    }
+}
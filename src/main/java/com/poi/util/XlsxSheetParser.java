@@ -0,0 +1,303 @@
+package com.poi.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 基于SAX的xlsx表解析器
+ * <p>
+ * 不创建XSSFWorkbook，直接解析sheet的xml，每解析完一行就通过RowCallback交出去，
+ * 内存中只保留当前行和共享字符串表，共享字符串表也可以放在磁盘上，见DiskSharedStrings。
+ * 回调不需要的单元格不收集文本、不查共享字符串表，回调读够行后停止解析。
+ */
+class XlsxSheetParser extends DefaultHandler {
+    /**
+     * 回调读够行后终止SAX解析
+     */
+    private static final class StopParsing extends SAXException {
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * 共享字符串表
+     */
+    private final SharedStrings sharedStrings;
+
+    /**
+     * 行回调
+     */
+    private final RowCallback callback;
+
+    /**
+     * 复用的行对象
+     */
+    private final RawRow row = new RawRow();
+
+    /**
+     * 单元格文本缓存
+     */
+    private final StringBuilder text = new StringBuilder();
+
+    /**
+     * 上一行的行号，用于没有r属性的行
+     */
+    private int lastRowNum = -1;
+
+    /**
+     * 当前单元格的列号
+     */
+    private int column;
+
+    /**
+     * 当前单元格的类型，即c标签的t属性
+     */
+    private String cellType;
+
+    /**
+     * 是否正在收集单元格文本
+     */
+    private boolean collecting;
+
+    /**
+     * 当前单元格是否被回调跳过
+     */
+    private boolean skipping;
+
+    private XlsxSheetParser(SharedStrings sharedStrings, RowCallback callback) {
+        this.sharedStrings = sharedStrings;
+        this.callback = callback;
+    }
+
+    /**
+     * 解析指定的sheet，共享字符串表读进内存
+     *
+     * @param pkg        xlsx文件
+     * @param sheetIndex 第几张sheet，从0开始
+     * @param callback   行回调
+     * @throws Exception 回调抛出的异常原样抛出
+     */
+    static void parse(OPCPackage pkg, int sheetIndex, RowCallback callback) throws Exception {
+        try (SharedStrings sharedStrings = SharedStrings.open(pkg, ImportConfig.defaults())) {
+            parse(pkg, sheetIndex, sharedStrings, callback);
+        }
+    }
+
+    /**
+     * 解析指定的sheet
+     *
+     * @param pkg           xlsx文件
+     * @param sheetIndex    第几张sheet，从0开始
+     * @param sharedStrings 共享字符串表
+     * @param callback      行回调
+     * @throws Exception 回调抛出的异常原样抛出
+     */
+    static void parse(OPCPackage pkg, int sheetIndex, SharedStrings sharedStrings, RowCallback callback) throws Exception {
+        try (InputStream sheet = openSheet(pkg, sheetIndex)) {
+            parse(sheet, sharedStrings, callback);
+        }
+    }
+
+    /**
+     * 按顺序读取所有sheet的名称
+     *
+     * @param pkg xlsx文件
+     * @return
+     * @throws Exception
+     */
+    static List<String> sheetNames(OPCPackage pkg) throws Exception {
+        List<String> names = new ArrayList<>();
+        XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+        while (sheets.hasNext()) {
+            //只取名称，不读取内容
+            sheets.next().close();
+            names.add(sheets.getSheetName());
+        }
+        return names;
+    }
+
+    /**
+     * 打开指定sheet的xml流
+     *
+     * @param pkg        xlsx文件
+     * @param sheetIndex 第几张sheet，从0开始
+     * @return 解压后的xml流，由调用方关闭
+     * @throws Exception
+     */
+    static InputStream openSheet(OPCPackage pkg, int sheetIndex) throws Exception {
+        XSSFReader reader = new XSSFReader(pkg);
+        Iterator<InputStream> sheets = reader.getSheetsData();
+        for (int i = 0; sheets.hasNext(); i++) {
+            InputStream sheet = sheets.next();
+            if (i == sheetIndex) {
+                return sheet;
+            }
+            sheet.close();
+        }
+        throw new IllegalArgumentException("sheet不存在:" + sheetIndex);
+    }
+
+    /**
+     * 解析一张sheet的xml
+     *
+     * @param sheet         sheet的xml流
+     * @param sharedStrings 共享字符串表
+     * @param callback      行回调
+     * @throws Exception 回调抛出的异常原样抛出
+     */
+    static void parse(InputStream sheet, SharedStrings sharedStrings, RowCallback callback) throws Exception {
+        parse(sheet, sharedStrings, callback, 0);
+    }
+
+    /**
+     * 从某一行开始解析sheet的xml，用于从行索引的检查点继续解析
+     *
+     * @param sheet         sheet的xml流
+     * @param sharedStrings 共享字符串表
+     * @param callback      行回调
+     * @param firstRowNum   第一个row标签没有r属性时使用的行号
+     * @throws Exception 回调抛出的异常原样抛出
+     */
+    static void parse(InputStream sheet, SharedStrings sharedStrings, RowCallback callback, int firstRowNum) throws Exception {
+        XMLReader xmlReader;
+        try {
+            xmlReader = SAXHelper.newXMLReader();
+        } catch (ParserConfigurationException e) {
+            throw new IOException("无法创建SAX解析器", e);
+        }
+        XlsxSheetParser parser = new XlsxSheetParser(sharedStrings, callback);
+        parser.lastRowNum = firstRowNum - 1;
+        xmlReader.setContentHandler(parser);
+        try {
+            xmlReader.parse(new InputSource(sheet));
+        } catch (StopParsing e) {
+            //回调已经读够了行
+        } catch (SAXException e) {
+            //回调中的异常被包装在SAXException中，拆出来
+            if (e.getException() != null) {
+                throw e.getException();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        switch (localName) {
+            case "row":
+                String r = attributes.getValue("r");
+                lastRowNum = r == null ? lastRowNum + 1 : Integer.parseInt(r) - 1;
+                row.reset(lastRowNum);
+                column = -1;
+                break;
+            case "c":
+                String ref = attributes.getValue("r");
+                column = ref == null ? column + 1 : columnIndex(ref);
+                cellType = attributes.getValue("t");
+                skipping = !callback.isColumnNeeded(lastRowNum, column);
+                break;
+            case "v":
+            case "t":
+                //t标签是inlineStr的文本，可能有多段
+                if (!collecting && !skipping) {
+                    text.setLength(0);
+                    collecting = true;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (collecting) {
+            text.append(ch, start, length);
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "v":
+                if (collecting) {
+                    collecting = false;
+                    setValue();
+                }
+                break;
+            case "is":
+                if (collecting) {
+                    collecting = false;
+                    row.set(column, text.toString());
+                }
+                break;
+            case "row":
+                try {
+                    callback.onRow(row);
+                } catch (Exception e) {
+                    throw new SAXException(e);
+                }
+                if (callback.isDone()) {
+                    throw new StopParsing();
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 根据单元格类型把v标签的值转换成文本
+     */
+    private void setValue() throws SAXException {
+        String value = text.toString();
+        if (cellType == null || "n".equals(cellType)) {
+            //数字保留原值，用到文本时才转换
+            row.setNumber(column, Double.parseDouble(value));
+        } else if ("s".equals(cellType)) {
+            try {
+                row.set(column, sharedStrings.get(Integer.parseInt(value)));
+            } catch (IOException e) {
+                throw new SAXException(e);
+            }
+        } else if ("b".equals(cellType)) {
+            row.set(column, "0".equals(value) ? "FALSE" : "TRUE");
+        } else if ("str".equals(cellType) || "inlineStr".equals(cellType)) {
+            row.set(column, value);
+        }
+        //e类型是错误单元格，当作空值
+    }
+
+    /**
+     * 把A1形式的单元格引用转换成列号
+     *
+     * @param ref 单元格引用
+     * @return 列号，从0开始
+     */
+    static int columnIndex(String ref) {
+        int index = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            index = index * 26 + (c - 'A' + 1);
+        }
+        return index - 1;
+    }
+}
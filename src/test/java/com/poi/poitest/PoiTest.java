@@ -3,14 +3,58 @@ package com.poi.poitest;
 
 import com.poi.pojo.Brand;
 import com.poi.pojo.Goods;
+import com.poi.util.ColumnarResult;
+import com.poi.util.CsvConfig;
+import com.poi.util.CsvUtil;
+import com.poi.util.ExcelMetrics;
+import com.poi.util.ExcelTemplate;
 import com.poi.util.ExcelUtil;
+import com.poi.util.ExportConfig;
+import com.poi.util.ImportCache;
+import com.poi.util.ImportConfig;
+import com.poi.util.SheetIndex;
+import com.poi.util.SheetMapping;
+import com.poi.util.SheetResults;
+import com.poi.util.StyleDescriptor;
+import com.poi.util.StyleRegistry;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
 import org.junit.Test;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellType;
 
 import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.stream.Stream;
 
 /**
  * @author:tianyao
@@ -75,4 +119,1030 @@ public class PoiTest {
         List<Goods> goods = ExcelUtil.excel2Pojo(fileInputStream, clazz, map);
         System.out.println(goods);
     }
+
+    /**
+     * 流式写出测试，窗口远小于数据行数
+     */
+    @Test
+    public void pojo2ExcelStreaming() throws Exception {
+        List<Goods> list = buildGoods(5000);
+        File file = File.createTempFile("goods", ".xlsx");
+        file.deleteOnExit();
+        LinkedHashMap<String, String> map = goodsAlias();
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            ExcelUtil.pojo2Excel(list, outputStream, map, "商品表", map.size() - 1, ExportConfig.streaming(100));
+        }
+        //读取时使用列名到属性名的对应关系
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+            List<Goods> goods = ExcelUtil.excel2Pojo(fileInputStream, Goods.class, reverse);
+            Assert.assertEquals(list.size(), goods.size());
+            Assert.assertEquals("商品4999", goods.get(4999).getGoodsName());
+            Assert.assertEquals(0, new BigDecimal("4999.5").compareTo(goods.get(4999).getPrice()));
+        }
+    }
+
+    /**
+     * 超过每张表的行数时拆分成多张表，并行生成的结果和顺序一致
+     */
+    @Test
+    public void pojo2ExcelMultiSheet() throws Exception {
+        List<Goods> list = buildGoods(2500);
+        LinkedHashMap<String, String> map = goodsAlias();
+        ExportConfig config = ExportConfig.streaming(100);
+        config.setMaxRowsPerSheet(1000);
+        config.setParallel(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(list, outputStream, map, "商品表", map.size() - 1, config);
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Assert.assertEquals(3, wb.getNumberOfSheets());
+            for (int i = 0; i < 3; i++) {
+                Sheet sheet = wb.getSheetAt(i);
+                Assert.assertEquals("商品表", sheet.getRow(0).getCell(0).getStringCellValue());
+                Assert.assertEquals("卖家名", sheet.getRow(1).getCell(0).getStringCellValue());
+                Assert.assertEquals("商品" + i * 1000, sheet.getRow(2).getCell(1).getStringCellValue());
+            }
+            Assert.assertEquals(501, wb.getSheetAt(2).getLastRowNum());
+            Assert.assertEquals("商品2499", wb.getSheetAt(2).getRow(501).getCell(1).getStringCellValue());
+        }
+    }
+
+    /**
+     * 并行生成时一张表失败，等其他表写完后抛出原来的异常
+     */
+    @Test
+    public void pojo2ExcelMultiSheetFailure() throws Exception {
+        List<Goods> list = buildGoods(2500);
+        list.set(1500, new BrokenGoods());
+        LinkedHashMap<String, String> map = goodsAlias();
+        ExportConfig config = ExportConfig.streaming(100);
+        config.setMaxRowsPerSheet(1000);
+        config.setParallel(true);
+        try {
+            ExcelUtil.pojo2Excel(list, new ByteArrayOutputStream(), map, "商品表", map.size() - 1, config);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("商品名读取失败", e.getMessage());
+        }
+    }
+
+    /**
+     * 从Stream逐个写出，不需要先生成List，超过每张表的行数时接着写下一张表
+     */
+    @Test
+    public void pojo2ExcelFromStream() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        ExportConfig config = ExportConfig.streaming(100);
+        config.setMaxRowsPerSheet(1000);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Stream<Goods> rows = IntStream.range(0, 2500).mapToObj(PoiTest::buildGoodsAt);
+        ExcelUtil.pojo2Excel(rows, Goods.class, outputStream, map, "商品表", map.size() - 1, config);
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Assert.assertEquals(3, wb.getNumberOfSheets());
+            for (int i = 0; i < 3; i++) {
+                Sheet sheet = wb.getSheetAt(i);
+                Assert.assertEquals("卖家名", sheet.getRow(1).getCell(0).getStringCellValue());
+                Assert.assertEquals("商品" + i * 1000, sheet.getRow(2).getCell(1).getStringCellValue());
+            }
+            Assert.assertEquals(501, wb.getSheetAt(2).getLastRowNum());
+            Assert.assertEquals("商品2499", wb.getSheetAt(2).getRow(501).getCell(1).getStringCellValue());
+        }
+
+        //没有数据时只有标题和列名
+        outputStream.reset();
+        ExcelUtil.pojo2Excel(Collections.<Goods>emptyIterator(), Goods.class, outputStream, ExportConfig.defaults());
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Assert.assertEquals(1, wb.getNumberOfSheets());
+            Assert.assertEquals(1, wb.getSheetAt(0).getLastRowNum());
+            Assert.assertEquals("卖家名", wb.getSheetAt(0).getRow(1).getCell(0).getStringCellValue());
+        }
+    }
+
+    /**
+     * 分批导入，批按顺序到达，消费出错时停止解析并抛出
+     */
+    @Test
+    public void excel2PojoBatches() throws Exception {
+        byte[] bytes = exportGoods(2500, ExportConfig.streaming(100));
+        LinkedHashMap<String, String> reverse = goodsColumns();
+
+        List<List<Goods>> batches = new ArrayList<>();
+        ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, 1000, batches::add);
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals(1000, batches.get(0).size());
+        Assert.assertEquals(500, batches.get(2).size());
+        Assert.assertEquals("商品1000", batches.get(1).get(0).getGoodsName());
+        Assert.assertEquals("商品2499", batches.get(2).get(499).getGoodsName());
+
+        List<List<Goods>> received = new ArrayList<>();
+        try {
+            ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, 100, batch -> {
+                received.add(batch);
+                throw new IllegalStateException("写入失败");
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("写入失败", e.getMessage());
+        }
+        Assert.assertEquals(1, received.size());
+    }
+
+    /**
+     * 并行转换的结果和顺序与串行一致
+     */
+    @Test
+    public void excel2PojoParallel() throws Exception {
+        byte[] bytes = exportGoods(2500, ExportConfig.streaming(100));
+        LinkedHashMap<String, String> reverse = goodsColumns();
+
+        ImportConfig config = ImportConfig.defaults();
+        config.setParallel(true);
+        config.setChunkSize(64);
+        config.setForkJoinPool(new ForkJoinPool(4));
+        try {
+            List<Goods> goods = ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config);
+            Assert.assertEquals(2500, goods.size());
+            for (int i = 0; i < goods.size(); i++) {
+                Assert.assertEquals("商品" + i, goods.get(i).getGoodsName());
+                Assert.assertEquals(Long.valueOf(i), goods.get(i).getBrandId());
+                Assert.assertEquals(0, new BigDecimal(i + ".5").compareTo(goods.get(i).getPrice()));
+            }
+
+            List<List<Goods>> batches = new ArrayList<>();
+            ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config, 1000, batches::add);
+            Assert.assertEquals(3, batches.size());
+            Assert.assertEquals("商品1000", batches.get(1).get(0).getGoodsName());
+            Assert.assertEquals(500, batches.get(2).size());
+        } finally {
+            config.getForkJoinPool().shutdown();
+        }
+    }
+
+    /**
+     * 共享字符串表保存在磁盘上，缓存远小于唯一字符串数时结果不变，导入后临时文件已删除
+     */
+    @Test
+    public void excel2PojoDiskSharedStrings() throws Exception {
+        //内存模式导出的文本单元格写在共享字符串表中
+        byte[] bytes = exportGoods(300, ExportConfig.defaults());
+        LinkedHashMap<String, String> reverse = goodsColumns();
+
+        ImportConfig config = ImportConfig.defaults();
+        config.setDiskSharedStrings(true);
+        config.setSharedStringsCacheSize(16);
+        List<String> tempFiles = sharedStringsTempFiles();
+        List<Goods> goods = new ArrayList<>();
+        ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config, goods::add);
+        Assert.assertEquals(300, goods.size());
+        for (int i = 0; i < goods.size(); i++) {
+            Assert.assertEquals("商品" + i, goods.get(i).getGoodsName());
+            Assert.assertEquals(Long.valueOf(i), goods.get(i).getBrandId());
+        }
+        //数据文件和索引文件都已删除
+        Assert.assertEquals(tempFiles, sharedStringsTempFiles());
+    }
+
+    /**
+     * 临时目录中的共享字符串临时文件
+     */
+    private static List<String> sharedStringsTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(new File(System.getProperty("java.io.tmpdir")).toPath())) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith("sharedStrings") && (name.endsWith(".dat") || name.endsWith(".idx")))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 按列指定共享或直接写入文本，AUTO按样本中的重复率决定
+     */
+    @Test
+    public void pojo2ExcelStringStrategies() throws Exception {
+        ExportConfig config = ExportConfig.streaming(100);
+        config.setStringSampleSize(100);
+        config.setStringStrategy(ExportConfig.StringStrategy.AUTO);
+        Map<String, ExportConfig.StringStrategy> strategies = new HashMap<>();
+        strategies.put("sellerId", ExportConfig.StringStrategy.SHARED);
+        strategies.put("goodsName", ExportConfig.StringStrategy.INLINE);
+        config.setColumnStringStrategies(strategies);
+        byte[] bytes = exportGoods(500, config);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            XSSFRow row = workbook.getSheetAt(0).getRow(401);
+            //sellerId指定共享，goodsName指定直接写入，auditStatus只有4个值，caption每行不同
+            Assert.assertEquals(STCellType.S, row.getCell(0).getCTCell().getT());
+            Assert.assertEquals(STCellType.INLINE_STR, row.getCell(1).getCTCell().getT());
+            Assert.assertEquals(STCellType.S, row.getCell(2).getCTCell().getT());
+            Assert.assertEquals(STCellType.INLINE_STR, row.getCell(4).getCTCell().getT());
+            Assert.assertEquals("seller9", row.getCell(0).getStringCellValue());
+            Assert.assertEquals("商品399", row.getCell(1).getStringCellValue());
+            Assert.assertEquals("副标题399", row.getCell(4).getStringCellValue());
+        }
+
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        List<Goods> goods = ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse);
+        Assert.assertEquals(500, goods.size());
+        for (int i = 0; i < goods.size(); i++) {
+            Assert.assertEquals("seller" + (i % 10), goods.get(i).getSellerId());
+            Assert.assertEquals(String.valueOf(i % 4), goods.get(i).getAuditStatus());
+            Assert.assertEquals("副标题" + i, goods.get(i).getCaption());
+        }
+    }
+
+    /**
+     * 并行生成带共享文本的多张表，两次生成的文件完全相同
+     */
+    @Test
+    public void pojo2ExcelSharedStringsDeterministic() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        ExportConfig config = ExportConfig.streaming(100);
+        config.setMaxRowsPerSheet(500);
+        config.setParallel(true);
+        config.setStringSampleSize(50);
+        config.setStringStrategy(ExportConfig.StringStrategy.AUTO);
+        config.setColumnStringStrategies(Collections.singletonMap("sellerId", ExportConfig.StringStrategy.SHARED));
+        List<Goods> list = buildGoods(2500);
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(list, first, map, "商品表", map.size() - 1, config);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(list, second, map, "商品表", map.size() - 1, config);
+        //zip头中的修改时间是写出时的时间，逐个比较解压后的条目
+        Map<String, byte[]> firstEntries = zipEntries(first.toByteArray());
+        Map<String, byte[]> secondEntries = zipEntries(second.toByteArray());
+        Assert.assertEquals(new ArrayList<>(firstEntries.keySet()), new ArrayList<>(secondEntries.keySet()));
+        Assert.assertTrue(firstEntries.containsKey("xl/sharedStrings.xml"));
+        for (Map.Entry<String, byte[]> entry : firstEntries.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), secondEntries.get(entry.getKey()));
+        }
+    }
+
+    /**
+     * 按顺序解压xlsx中的所有条目
+     */
+    private static Map<String, byte[]> zipEntries(byte[] xlsx) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(xlsx))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = in.read(buffer)) >= 0) {
+                    content.write(buffer, 0, n);
+                }
+                entries.put(entry.getName(), content.toByteArray());
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 相同的格式只创建一个CellStyle，多张表共用
+     */
+    @Test
+    public void styleRegistry() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            StyleRegistry styles = new StyleRegistry(workbook);
+            StyleDescriptor date = StyleDescriptor.CELL.withDataFormat("yyyy-mm-dd");
+            Assert.assertSame(styles.get(date), styles.get(StyleDescriptor.CELL.withDataFormat("yyyy-mm-dd")));
+            Assert.assertNotSame(styles.get(date), styles.get(StyleDescriptor.CELL));
+            //日期格式和数据单元格共用一个字体
+            Assert.assertEquals(styles.get(date).getFontIndex(), styles.get(StyleDescriptor.CELL).getFontIndex());
+            Assert.assertEquals(2, styles.size());
+        }
+
+        //多张表共用标题、列名和数据单元格三个格式，加上工作簿默认的一个
+        ExportConfig config = ExportConfig.streaming(100);
+        config.setMaxRowsPerSheet(100);
+        byte[] bytes = exportGoods(300, config);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
+            Assert.assertEquals(3, workbook.getNumberOfSheets());
+            Assert.assertEquals(4, workbook.getNumCellStyles());
+        }
+    }
+
+    /**
+     * 按模板导出，保留标题、列名和样板行的格式
+     */
+    @Test
+    public void pojo2ExcelTemplate() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        //标题、列名和一行样板，样板行的价格列使用两位小数
+        ByteArrayOutputStream templateOut = new ByteArrayOutputStream();
+        try (XSSFWorkbook template = new XSSFWorkbook()) {
+            Sheet sheet = template.createSheet("商品");
+            sheet.createRow(0).createCell(0).setCellValue("商品报表");
+            Row head = sheet.createRow(1);
+            Row prototype = sheet.createRow(2);
+            CellStyle price = template.createCellStyle();
+            price.setDataFormat(template.createDataFormat().getFormat("0.00"));
+            int column = 0;
+            for (String name : map.values()) {
+                head.createCell(column).setCellValue(name);
+                prototype.createCell(column++).setCellStyle(name.equals("价格") ? price : template.getCellStyleAt(0));
+            }
+            template.write(templateOut);
+        }
+        ExcelTemplate template = ExcelTemplate.register("goods", new ByteArrayInputStream(templateOut.toByteArray()));
+        Assert.assertSame(template, ExcelTemplate.get("goods"));
+        Assert.assertEquals(2, template.getDataStartRow());
+
+        try {
+            for (ExportConfig config : new ExportConfig[]{ExportConfig.defaults(), ExportConfig.streaming(10)}) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                ExcelUtil.pojo2Excel(ExcelTemplate.get("goods"), buildGoods(50).iterator(), Goods.class, outputStream, map, config);
+                try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+                    Sheet sheet = workbook.getSheetAt(0);
+                    Assert.assertEquals("商品报表", sheet.getRow(0).getCell(0).getStringCellValue());
+                    Assert.assertEquals("价格", sheet.getRow(1).getCell(5).getStringCellValue());
+                    Assert.assertEquals(51, sheet.getLastRowNum());
+                    Assert.assertEquals("商品49", sheet.getRow(51).getCell(1).getStringCellValue());
+                    Assert.assertEquals("0.00", sheet.getRow(51).getCell(5).getCellStyle().getDataFormatString());
+                }
+            }
+        } finally {
+            ExcelTemplate.unregister("goods");
+        }
+    }
+
+    /**
+     * csv和tsv导出后原样读回，包括分隔符、引号、换行和四字节字符
+     */
+    @Test
+    public void csvRoundTrip() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        List<Goods> source = buildGoods(1000);
+        //分隔符、引号、换行和四字节字符都要原样读回
+        source.get(1).setCaption("a,\"b\"\r\nc");
+        source.get(2).setCaption("😀表情");
+        source.get(3).setCaption("");
+
+        CsvConfig config = CsvConfig.csv();
+        config.setBufferSize(1024);
+        config.setWriteBom(true);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        CsvUtil.pojo2Csv(source.iterator(), Goods.class, outputStream, map, config);
+        Assert.assertTrue(new String(outputStream.toByteArray(), "UTF-8").startsWith("\uFEFF卖家名,商品名,状态"));
+        List<Goods> goods = CsvUtil.csv2Pojo(new ByteArrayInputStream(outputStream.toByteArray()), Goods.class, reverse, config);
+        Assert.assertEquals(1000, goods.size());
+        for (int i = 0; i < goods.size(); i++) {
+            Assert.assertEquals(source.get(i).getGoodsName(), goods.get(i).getGoodsName());
+            Assert.assertEquals(source.get(i).getBrandId(), goods.get(i).getBrandId());
+            Assert.assertEquals(0, source.get(i).getPrice().compareTo(goods.get(i).getPrice()));
+            Assert.assertEquals(source.get(i).getIsDelete(), goods.get(i).getIsDelete());
+        }
+        Assert.assertEquals("a,\"b\"\r\nc", goods.get(1).getCaption());
+        Assert.assertEquals("😀表情", goods.get(2).getCaption());
+        //和excel2Pojo一样，空字段不设置属性
+        Assert.assertNull(goods.get(3).getCaption());
+
+        Path file = Files.createTempFile("goods", ".tsv");
+        try {
+            CsvUtil.pojo2Csv(source.iterator(), Goods.class, file, map, CsvConfig.tsv());
+            List<Goods> tsv = new ArrayList<>();
+            CsvUtil.csv2Pojo(file, Goods.class, reverse, CsvConfig.tsv(), tsv::add);
+            Assert.assertEquals(1000, tsv.size());
+            Assert.assertEquals("商品999", tsv.get(999).getGoodsName());
+            Assert.assertEquals("a,\"b\"\r\nc", tsv.get(1).getCaption());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * xls文件按流式读取，公式取缓存的结果
+     */
+    @Test
+    public void excel2PojoXls() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (HSSFWorkbook workbook = new HSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("商品表");
+            Row head = sheet.createRow(1);
+            int column = 0;
+            for (String name : map.values()) {
+                head.createCell(column++).setCellValue(name);
+            }
+            for (int i = 0; i < 300; i++) {
+                Goods goods = buildGoodsAt(i);
+                Row row = sheet.createRow(i + 2);
+                row.createCell(0).setCellValue(goods.getSellerId());
+                row.createCell(1).setCellValue(goods.getGoodsName());
+                row.createCell(2).setCellValue(goods.getAuditStatus());
+                row.createCell(3).setCellValue(goods.getBrandId());
+                //公式取缓存的字符串结果
+                row.createCell(4).setCellFormula("\"副标题\"&" + i);
+                row.createCell(5).setCellValue(goods.getPrice().doubleValue());
+                row.createCell(6).setCellValue(goods.getIsDelete());
+            }
+            HSSFFormulaEvaluator.evaluateAllFormulaCells(workbook);
+            workbook.write(outputStream);
+        }
+
+        List<Goods> goods = ExcelUtil.excel2Pojo(new ByteArrayInputStream(outputStream.toByteArray()), Goods.class, reverse);
+        Assert.assertEquals(300, goods.size());
+        for (int i = 0; i < goods.size(); i++) {
+            Goods expected = buildGoodsAt(i);
+            Assert.assertEquals(expected.getGoodsName(), goods.get(i).getGoodsName());
+            Assert.assertEquals(expected.getBrandId(), goods.get(i).getBrandId());
+            Assert.assertEquals(expected.getCaption(), goods.get(i).getCaption());
+            Assert.assertEquals(0, expected.getPrice().compareTo(goods.get(i).getPrice()));
+            Assert.assertEquals(expected.getIsDelete(), goods.get(i).getIsDelete());
+        }
+
+        List<List<Goods>> batches = new ArrayList<>();
+        ExcelUtil.excel2Pojo(new ByteArrayInputStream(outputStream.toByteArray()), Goods.class, reverse, 128, batches::add);
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals("商品299", batches.get(2).get(43).getGoodsName());
+    }
+
+    /**
+     * 直接按文件读取，不拷贝到临时文件，也不修改文件
+     */
+    @Test
+    public void excel2PojoFromFile() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        Path file = Files.createTempFile("goods", ".xlsx");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                ExcelUtil.pojo2Excel(buildGoods(200), out, map, "商品表", map.size() - 1, ExportConfig.defaults());
+            }
+            List<Goods> goods = ExcelUtil.excel2Pojo(file, Goods.class, reverse);
+            Assert.assertEquals(200, goods.size());
+            Assert.assertEquals("商品199", goods.get(199).getGoodsName());
+            Assert.assertEquals(200, ExcelUtil.excel2Pojo(file.toFile(), Goods.class, reverse).size());
+
+            List<Goods> streamed = new ArrayList<>();
+            ExcelUtil.excel2Pojo(file, Goods.class, reverse, ImportConfig.defaults(), streamed::add);
+            Assert.assertEquals(200, streamed.size());
+            Assert.assertEquals(Long.valueOf(199), streamed.get(199).getBrandId());
+            //按文件打开不会修改文件
+            Assert.assertEquals(200, ExcelUtil.excel2Pojo(file, Goods.class, reverse).size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * 按列读取，数字列保存为数组，文本列按字典编码，转换失败的单元格记为空值
+     */
+    @Test
+    public void excel2Columns() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        List<Goods> list = buildGoods(3000);
+        list.get(7).setBrandId(null);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(list, outputStream, map, "商品表", map.size() - 1, ExportConfig.streaming(100));
+        LinkedHashMap<String, String> reverse = new LinkedHashMap<>();
+        reverse.put("卖家名", "sellerId");
+        reverse.put("品牌id", "brandId");
+        reverse.put("价格", "price");
+        reverse.put("是否删除", "isDelete");
+        ColumnarResult result = ExcelUtil.excel2Columns(new ByteArrayInputStream(outputStream.toByteArray()), Goods.class, reverse, ImportConfig.defaults());
+        Assert.assertEquals(3000, result.getRowCount());
+        Assert.assertEquals(4, result.getProperties().size());
+
+        ColumnarResult.LongColumn brandId = result.getLongColumn("brandId");
+        Assert.assertEquals(2999, brandId.get(2999));
+        Assert.assertTrue(brandId.isNull(7));
+        Assert.assertEquals(1, brandId.nullCount());
+        Assert.assertEquals(2500.5, result.getDoubleColumn("price").get(2500), 0);
+        Assert.assertEquals(1, result.getLongColumn("isDelete").get(0));
+        Assert.assertEquals(0, result.getLongColumn("isDelete").get(1));
+
+        ColumnarResult.StringColumn sellerId = result.getStringColumn("sellerId");
+        Assert.assertEquals(10, sellerId.getDictionary().size());
+        Assert.assertEquals("seller3", sellerId.get(2003));
+        Assert.assertEquals(sellerId.getCode(3), sellerId.getCode(2003));
+        Assert.assertNull(result.getColumn("goodsName"));
+
+        //超出int范围的数字单元格和文本单元格一样记为空值
+        ByteArrayOutputStream ids = new ByteArrayOutputStream();
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("品牌表");
+            sheet.createRow(1).createCell(0).setCellValue("编号");
+            sheet.createRow(2).createCell(0).setCellValue(5);
+            sheet.createRow(3).createCell(0).setCellValue(3.0E9);
+            sheet.createRow(4).createCell(0).setCellValue("3000000000");
+            wb.write(ids);
+        }
+        LinkedHashMap<String, String> idAlias = new LinkedHashMap<>();
+        idAlias.put("编号", "id");
+        ColumnarResult.LongColumn id = ExcelUtil.excel2Columns(new ByteArrayInputStream(ids.toByteArray()), Brand.class, idAlias, ImportConfig.defaults())
+                .getLongColumn("id");
+        Assert.assertEquals(5, id.get(0));
+        Assert.assertTrue(id.isNull(1));
+        Assert.assertTrue(id.isNull(2));
+
+        //BigInteger按long保存，超出long范围时记为空值
+        ByteArrayOutputStream totals = new ByteArrayOutputStream();
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("总量表");
+            sheet.createRow(1).createCell(0).setCellValue("总量");
+            sheet.createRow(2).createCell(0).setCellValue("9223372036854775807");
+            sheet.createRow(3).createCell(0).setCellValue("9223372036854775808");
+            sheet.createRow(4).createCell(0).setCellValue(9.3E18);
+            sheet.createRow(5).createCell(0).setCellValue(-42);
+            wb.write(totals);
+        }
+        LinkedHashMap<String, String> totalAlias = new LinkedHashMap<>();
+        totalAlias.put("总量", "total");
+        ColumnarResult.LongColumn total = ExcelUtil.excel2Columns(new ByteArrayInputStream(totals.toByteArray()), Amount.class, totalAlias, ImportConfig.defaults())
+                .getLongColumn("total");
+        Assert.assertEquals(Long.MAX_VALUE, total.get(0));
+        Assert.assertTrue(total.isNull(1));
+        Assert.assertTrue(total.isNull(2));
+        Assert.assertEquals(-42, total.get(3));
+    }
+
+    /**
+     * 只读取选中的属性和指定范围的数据行
+     */
+    @Test
+    public void excel2PojoProjectionAndRange() throws Exception {
+        byte[] bytes = exportGoods(3000, ExportConfig.streaming(100));
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        ImportConfig config = ImportConfig.defaults();
+        config.setProjection(Arrays.asList("goodsName", "brandId"));
+        config.setRowOffset(100);
+        config.setRowLimit(50);
+        List<ExcelMetrics> results = new ArrayList<>();
+        config.setMetricsListener(results::add);
+        List<Goods> goods = ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config);
+        Assert.assertEquals(50, goods.size());
+        Assert.assertEquals("商品100", goods.get(0).getGoodsName());
+        Assert.assertEquals(Long.valueOf(149), goods.get(49).getBrandId());
+        //没有选中的属性不读取
+        Assert.assertNull(goods.get(0).getCaption());
+        Assert.assertNull(goods.get(0).getPrice());
+        Assert.assertEquals(50, results.get(0).getRows());
+        Assert.assertEquals(100, results.get(0).getCells());
+
+        config.setParallel(true);
+        config.setChunkSize(16);
+        goods = ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config);
+        Assert.assertEquals(50, goods.size());
+        Assert.assertEquals("商品149", goods.get(49).getGoodsName());
+
+        ImportConfig columns = ImportConfig.defaults();
+        columns.setRowLimit(10);
+        ColumnarResult result = ExcelUtil.excel2Columns(new ByteArrayInputStream(bytes), Goods.class, reverse, columns);
+        Assert.assertEquals(10, result.getRowCount());
+        Assert.assertEquals(9, result.getLongColumn("brandId").get(9));
+    }
+
+    /**
+     * 第一次完整读取时生成行索引，之后按索引跳到指定的数据行
+     */
+    @Test
+    public void excel2PojoWithRowIndex() throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        Path file = Files.createTempFile("goods", ".xlsx");
+        Path sidecar = SheetIndex.sidecar(file);
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                ExcelUtil.pojo2Excel(buildGoods(3000), out, map, "商品表", map.size() - 1, ExportConfig.streaming(100));
+            }
+            ImportConfig config = ImportConfig.defaults();
+            config.setIndexInterval(100);
+            //第一次完整读取时生成索引
+            Assert.assertEquals(3000, ExcelUtil.excel2Pojo(file, Goods.class, reverse, config).size());
+            SheetIndex index = SheetIndex.load(file);
+            Assert.assertNotNull(index);
+            Assert.assertEquals(3000, index.getDataRowCount());
+            Assert.assertEquals(31, index.getCheckpointCount());
+            //重复保存时替换旧的索引，不留下临时文件
+            index.save(file);
+            try (Stream<Path> siblings = Files.list(sidecar.toAbsolutePath().getParent())) {
+                Assert.assertFalse(siblings.anyMatch(p -> p.getFileName().toString().startsWith(sidecar.getFileName().toString()) && p.toString().endsWith(".tmp")));
+            }
+            Assert.assertEquals(31, SheetIndex.load(file).getCheckpointCount());
+
+            config.setRowOffset(1234);
+            config.setRowLimit(100);
+            List<Goods> page = ExcelUtil.excel2Pojo(file, Goods.class, reverse, config);
+            Assert.assertEquals(100, page.size());
+            Assert.assertEquals("商品1234", page.get(0).getGoodsName());
+            Assert.assertEquals(Long.valueOf(1333), page.get(99).getBrandId());
+
+            config.setRowOffset(2950);
+            page = ExcelUtil.excel2Pojo(file, Goods.class, reverse, config);
+            Assert.assertEquals(50, page.size());
+            Assert.assertEquals("商品2999", page.get(49).getGoodsName());
+        } finally {
+            Files.deleteIfExists(sidecar);
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * 相同的文件和别名命中缓存，容量不够时淘汰最久没有用的结果
+     */
+    @Test
+    public void excel2PojoCache() throws Exception {
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        byte[] bytes = exportGoods(100, ExportConfig.defaults());
+
+        ImportCache cache = new ImportCache(900);
+        ImportConfig config = ImportConfig.defaults();
+        config.setCache(cache);
+        List<ExcelMetrics> results = new ArrayList<>();
+        config.setMetricsListener(results::add);
+        List<Goods> first = ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config);
+        List<Goods> second = ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config);
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getHitCount());
+        //命中时没有解析
+        Assert.assertEquals(1, results.size());
+        Assert.assertEquals(100, second.size());
+        Assert.assertEquals(first.get(42).getGoodsName(), second.get(42).getGoodsName());
+        Assert.assertEquals(0, first.get(42).getPrice().compareTo(second.get(42).getPrice()));
+        //每次命中都是新的对象
+        Assert.assertNotSame(first.get(0), second.get(0));
+        second.get(0).setGoodsName("修改");
+        Assert.assertEquals("商品0", ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, reverse, config).get(0).getGoodsName());
+        Assert.assertEquals(700, cache.getCells());
+
+        //别名不同是不同的结果，容量不够时淘汰最久没有用的
+        LinkedHashMap<String, String> names = new LinkedHashMap<>();
+        names.put("商品名", "goodsName");
+        names.put("品牌id", "brandId");
+        names.put("价格", "price");
+        List<Goods> projected = ExcelUtil.excel2Pojo(new ByteArrayInputStream(bytes), Goods.class, names, config);
+        Assert.assertNull(projected.get(0).getSellerId());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals(300, cache.getCells());
+    }
+
+    /**
+     * 一次读取多张表，按表名或序号指定，每张表转换成各自的类型
+     */
+    @Test
+    public void excel2PojoMultiSheet() throws Exception {
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        ExportConfig exportConfig = ExportConfig.streaming(100);
+        exportConfig.setMaxRowsPerSheet(1000);
+        byte[] bytes = exportGoods(2500, exportConfig);
+        //在商品表后面加一张品牌表
+        Path file = Files.createTempFile("sheets", ".xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(bytes));
+             OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = wb.createSheet("品牌");
+            sheet.createRow(0).createCell(0).setCellValue("品牌表");
+            Row head = sheet.createRow(1);
+            head.createCell(0).setCellValue("品牌名");
+            head.createCell(1).setCellValue("首字母大写");
+            for (int i = 0; i < 300; i++) {
+                Row row = sheet.createRow(i + 2);
+                row.createCell(0).setCellValue("品牌" + i);
+                row.createCell(1).setCellValue(String.valueOf((char) ('A' + i % 26)));
+            }
+            wb.write(out);
+        }
+        LinkedHashMap<String, String> brandAlias = new LinkedHashMap<>();
+        brandAlias.put("品牌名", "name");
+        brandAlias.put("首字母大写", "firstChar");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ImportConfig config = ImportConfig.defaults();
+            config.setSheetExecutor(executor);
+            List<ExcelMetrics> results = Collections.synchronizedList(new ArrayList<>());
+            config.setMetricsListener(results::add);
+            SheetMapping<Brand> brands = SheetMapping.of("品牌", Brand.class, brandAlias);
+            SheetMapping<Goods> last = SheetMapping.of(2, Goods.class, reverse);
+            SheetMapping<Goods> first = SheetMapping.of("Sheet0", Goods.class, reverse);
+            SheetResults sheets = ExcelUtil.excel2Pojo(file, Arrays.asList(brands, last, first), config);
+            Assert.assertEquals(3, sheets.size());
+            Assert.assertEquals(300, sheets.get(brands).size());
+            Assert.assertEquals("品牌299", sheets.get(brands).get(299).getName());
+            Assert.assertEquals("N", sheets.get(brands).get(13).getFirstChar());
+            Assert.assertEquals(500, sheets.get(last).size());
+            Assert.assertEquals("商品2000", sheets.get(last).get(0).getGoodsName());
+            Assert.assertEquals(1000, sheets.get(first).size());
+            Assert.assertEquals("商品999", sheets.get(first).get(999).getGoodsName());
+            //每张表一次统计
+            Assert.assertEquals(3, results.size());
+
+            try {
+                ExcelUtil.excel2Pojo(file, Collections.singletonList(SheetMapping.of("价格", Goods.class, reverse)), config);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("sheet不存在:价格", e.getMessage());
+            }
+
+            //xls按表名找到第二张表
+            ByteArrayOutputStream xls = new ByteArrayOutputStream();
+            try (HSSFWorkbook wb = new HSSFWorkbook()) {
+                wb.createSheet("说明");
+                Sheet sheet = wb.createSheet("品牌");
+                sheet.createRow(0).createCell(0).setCellValue("品牌表");
+                Row head = sheet.createRow(1);
+                head.createCell(0).setCellValue("品牌名");
+                head.createCell(1).setCellValue("首字母大写");
+                Row row = sheet.createRow(2);
+                row.createCell(0).setCellValue("品牌0");
+                row.createCell(1).setCellValue("A");
+                wb.write(xls);
+            }
+            SheetResults xlsSheets = ExcelUtil.excel2Pojo(new ByteArrayInputStream(xls.toByteArray()), Collections.singletonList(brands), config);
+            Assert.assertEquals("品牌0", xlsSheets.get(brands).get(0).getName());
+        } finally {
+            executor.shutdown();
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * 导出和导入时通过监听器统计各阶段耗时、行数和字节数
+     */
+    @Test
+    public void metricsListener() throws Exception {
+        List<Goods> list = buildGoods(1500);
+        LinkedHashMap<String, String> map = goodsAlias();
+        List<ExcelMetrics> results = new ArrayList<>();
+        ExportConfig config = ExportConfig.streaming(100);
+        config.setMaxRowsPerSheet(1000);
+        config.setMetricsListener(results::add);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(list, outputStream, map, "商品表", map.size() - 1, config);
+        Assert.assertEquals(1, results.size());
+        ExcelMetrics export = results.get(0);
+        Assert.assertEquals(ExcelMetrics.Operation.EXPORT, export.getOperation());
+        Assert.assertEquals(1500, export.getRows());
+        Assert.assertEquals(1500 * 7 + 2 * 8, export.getCells());
+        Assert.assertEquals(outputStream.size(), export.getBytes());
+        Assert.assertTrue(export.getPhaseNanos(ExcelMetrics.Phase.DATA_ROWS) > 0);
+        Assert.assertTrue(export.getPhaseNanos(ExcelMetrics.Phase.WRITE) > 0);
+        Assert.assertTrue(export.getRowsPerSecond() > 0);
+
+        ImportConfig importConfig = ImportConfig.defaults();
+        importConfig.setMetricsListener(results::add);
+        LinkedHashMap<String, String> reverse = goodsColumns();
+        List<Goods> goods = new ArrayList<>();
+        ExcelUtil.excel2Pojo(new ByteArrayInputStream(outputStream.toByteArray()), Goods.class, reverse, importConfig, goods::add);
+        Assert.assertEquals(2, results.size());
+        ExcelMetrics imported = results.get(1);
+        Assert.assertEquals(ExcelMetrics.Operation.IMPORT, imported.getOperation());
+        Assert.assertEquals(goods.size(), imported.getRows());
+        Assert.assertEquals(goods.size() * 7L, imported.getCells());
+        Assert.assertEquals(outputStream.size(), imported.getBytes());
+    }
+
+    /**
+     * 数字和布尔属性写成对应类型的单元格
+     */
+    @Test
+    public void pojo2ExcelTypedCells() throws Exception {
+        List<Goods> list = buildGoods(3);
+        LinkedHashMap<String, String> map = goodsAlias();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(list, outputStream, map, "商品表", map.size() - 1);
+        try (XSSFWorkbook wb = new XSSFWorkbook(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Row row = wb.getSheetAt(0).getRow(4);
+            Assert.assertEquals(CellType.STRING, row.getCell(1).getCellTypeEnum());
+            Assert.assertEquals(CellType.NUMERIC, row.getCell(3).getCellTypeEnum());
+            Assert.assertEquals(2, row.getCell(3).getNumericCellValue(), 0);
+            Assert.assertEquals(CellType.NUMERIC, row.getCell(5).getCellTypeEnum());
+            Assert.assertEquals(2.5, row.getCell(5).getNumericCellValue(), 0);
+            Assert.assertEquals(CellType.BOOLEAN, row.getCell(6).getCellTypeEnum());
+            Assert.assertTrue(row.getCell(6).getBooleanCellValue());
+            //列宽按写入时记录的最大宽度设置，中文按两个字符计算
+            Assert.assertEquals(11 * 256, wb.getSheetAt(0).getColumnWidth(4));
+        }
+    }
+
+    /**
+     * Date和java.time类型写成日期单元格，读取时直接从日期数字转换
+     */
+    @Test
+    public void dateRoundTrip() throws Exception {
+        Shipment shipment = new Shipment();
+        shipment.setCode("S001");
+        shipment.setCreateTime(new Date(LocalDateTime.of(2019, 6, 12, 15, 7, 30).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        shipment.setShipDate(LocalDate.of(2019, 6, 13));
+        shipment.setArriveTime(LocalDateTime.of(2019, 6, 15, 23, 59, 59));
+        shipment.setSignTime(LocalDateTime.of(2019, 6, 16, 8, 0).atZone(ZoneId.systemDefault()).toInstant());
+        LinkedHashMap<String, String> map = new LinkedHashMap<>();
+        map.put("code", "单号");
+        map.put("createTime", "创建时间");
+        map.put("shipDate", "发货日期");
+        map.put("arriveTime", "到达时间");
+        map.put("signTime", "签收时间");
+        ExportConfig config = ExportConfig.defaults();
+        config.setDatePatterns(Collections.singletonMap("arriveTime", "yyyy/MM/dd hh:mm:ss a"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(Collections.singletonList(shipment), outputStream, map, "发货表", map.size() - 1, config);
+        LinkedHashMap<String, String> reverse = columns(map);
+        List<Shipment> shipments = new ArrayList<>();
+        ExcelUtil.excel2Pojo(new ByteArrayInputStream(outputStream.toByteArray()), Shipment.class, reverse, shipments::add);
+        shipments.addAll(ExcelUtil.excel2Pojo(new ByteArrayInputStream(outputStream.toByteArray()), Shipment.class, reverse));
+        Assert.assertEquals(2, shipments.size());
+        for (Shipment read : shipments) {
+            Assert.assertEquals(shipment.getCreateTime(), read.getCreateTime());
+            Assert.assertEquals(shipment.getShipDate(), read.getShipDate());
+            Assert.assertEquals(shipment.getArriveTime(), read.getArriveTime());
+            Assert.assertEquals(shipment.getSignTime(), read.getSignTime());
+        }
+    }
+
+    /**
+     * 流式读取和整表读取的结果一致
+     */
+    @Test
+    public void excel2PojoStreaming() throws IOException {
+        File file = new File("src/main/resources/goods.xlsx");
+        LinkedHashMap<String, String> map = goodsColumns();
+        List<Goods> expected;
+        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+            expected = ExcelUtil.excel2Pojo(fileInputStream, Goods.class, map);
+        }
+        List<Goods> goods = new ArrayList<>();
+        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+            ExcelUtil.excel2Pojo(fileInputStream, Goods.class, map, goods::add);
+        }
+        Assert.assertFalse(goods.isEmpty());
+        Assert.assertEquals(expected.size(), goods.size());
+        for (int i = 0; i < goods.size(); i++) {
+            Assert.assertEquals(expected.get(i).getGoodsName(), goods.get(i).getGoodsName());
+            Assert.assertEquals(expected.get(i).getBrandId(), goods.get(i).getBrandId());
+            Assert.assertEquals(expected.get(i).getPrice(), goods.get(i).getPrice());
+            Assert.assertEquals(expected.get(i).getIsDelete(), goods.get(i).getIsDelete());
+        }
+    }
+
+    /**
+     * 按@ExcelColumn注解导出导入，不传别名，使用编译时生成的GoodsExcelMapper
+     * @throws Exception
+     */
+    @Test
+    public void annotationMapping() throws Exception {
+        Assert.assertNotNull(Class.forName("com.poi.pojo.GoodsExcelMapper"));
+        LinkedHashMap<String, String> alias = ExcelUtil.getAlias(Goods.class);
+        Assert.assertEquals(15, alias.size());
+        Assert.assertFalse(alias.containsKey("id"));
+        Assert.assertEquals("卖家名", alias.get("sellerId"));
+        Assert.assertEquals("是否删除", alias.get("isDelete"));
+
+        List<Goods> list = buildGoods(20);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(list, outputStream, "商品", alias.size());
+        List<Goods> goods = ExcelUtil.excel2Pojo(new ByteArrayInputStream(outputStream.toByteArray()), Goods.class);
+        Assert.assertEquals(list.size(), goods.size());
+        for (int i = 0; i < list.size(); i++) {
+            Assert.assertEquals(list.get(i).getGoodsName(), goods.get(i).getGoodsName());
+            Assert.assertEquals(0, list.get(i).getPrice().compareTo(goods.get(i).getPrice()));
+            Assert.assertEquals(list.get(i).getBrandId(), goods.get(i).getBrandId());
+            Assert.assertEquals(list.get(i).getIsDelete(), goods.get(i).getIsDelete());
+            Assert.assertNull(goods.get(i).getId());
+        }
+    }
+
+    /**
+     * 商品属性名和列名的对应关系
+     */
+    private static LinkedHashMap<String, String> goodsAlias() {
+        LinkedHashMap<String, String> map = new LinkedHashMap<>();
+        map.put("sellerId", "卖家名");
+        map.put("goodsName", "商品名");
+        map.put("auditStatus", "状态");
+        map.put("brandId", "品牌id");
+        map.put("caption", "副标题");
+        map.put("price", "价格");
+        map.put("isDelete", "是否删除");
+        return map;
+    }
+
+    /**
+     * 商品列名和属性名的对应关系，导入时使用
+     */
+    private static LinkedHashMap<String, String> goodsColumns() {
+        return columns(goodsAlias());
+    }
+
+    /**
+     * 把属性名到列名的对应关系反过来，得到导入用的列名到属性名的对应关系
+     */
+    private static LinkedHashMap<String, String> columns(LinkedHashMap<String, String> alias) {
+        LinkedHashMap<String, String> columns = new LinkedHashMap<>();
+        alias.forEach((property, column) -> columns.put(column, property));
+        return columns;
+    }
+
+    /**
+     * 按goodsAlias导出size个测试商品，返回生成的文件内容
+     */
+    private static byte[] exportGoods(int size, ExportConfig config) throws Exception {
+        LinkedHashMap<String, String> map = goodsAlias();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ExcelUtil.pojo2Excel(buildGoods(size), outputStream, map, "商品表", map.size() - 1, config);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * 生成测试用的商品数据
+     */
+    private static List<Goods> buildGoods(int size) {
+        List<Goods> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(buildGoodsAt(i));
+        }
+        return list;
+    }
+
+    /**
+     * 生成第i个测试用的商品
+     */
+    private static Goods buildGoodsAt(int i) {
+        Goods goods = new Goods();
+        goods.setSellerId("seller" + (i % 10));
+        goods.setGoodsName("商品" + i);
+        goods.setAuditStatus(String.valueOf(i % 4));
+        goods.setBrandId((long) i);
+        goods.setCaption("副标题" + i);
+        goods.setPrice(new BigDecimal(i + ".5"));
+        goods.setIsDelete(i % 2 == 0);
+        return goods;
+    }
+
+    /**
+     * 读取商品名时抛出异常的商品
+     */
+    public static class BrokenGoods extends Goods {
+        @Override
+        public String getGoodsName() {
+            throw new IllegalStateException("商品名读取失败");
+        }
+    }
+
+    /**
+     * 带日期属性的测试类
+     */
+    public static class Shipment {
+        private String code;
+        private Date createTime;
+        private LocalDate shipDate;
+        private LocalDateTime arriveTime;
+        private Instant signTime;
+
+        public String getCode() {
+            return code;
+        }
+
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        public Date getCreateTime() {
+            return createTime;
+        }
+
+        public void setCreateTime(Date createTime) {
+            this.createTime = createTime;
+        }
+
+        public LocalDate getShipDate() {
+            return shipDate;
+        }
+
+        public void setShipDate(LocalDate shipDate) {
+            this.shipDate = shipDate;
+        }
+
+        public LocalDateTime getArriveTime() {
+            return arriveTime;
+        }
+
+        public void setArriveTime(LocalDateTime arriveTime) {
+            this.arriveTime = arriveTime;
+        }
+
+        public Instant getSignTime() {
+            return signTime;
+        }
+
+        public void setSignTime(Instant signTime) {
+            this.signTime = signTime;
+        }
+    }
+
+    public static class Amount {
+        private BigInteger total;
+
+        public BigInteger getTotal() {
+            return total;
+        }
+
+        public void setTotal(BigInteger total) {
+            this.total = total;
+        }
+    }
 }
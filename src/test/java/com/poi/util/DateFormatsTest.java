@@ -0,0 +1,46 @@
+package com.poi.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 日期格式的解析和转换
+ */
+public class DateFormatsTest {
+    /**
+     * 格式中缺少的月、日和时间取默认值，没有年份时抛出DateTimeParseException
+     */
+    @Test
+    public void parsePartialPattern() {
+        Assert.assertEquals(LocalDateTime.of(2020, 3, 1, 0, 0),
+                DateFormats.parse("2020-03", DateTimeFormatter.ofPattern("yyyy-MM")));
+        Assert.assertEquals(LocalDateTime.of(2020, 1, 1, 0, 0),
+                DateFormats.parse("2020", DateTimeFormatter.ofPattern("yyyy")));
+        Assert.assertEquals(LocalDateTime.of(2020, 3, 5, 8, 0),
+                DateFormats.parse("2020-03-05 08", DateTimeFormatter.ofPattern("yyyy-MM-dd HH")));
+        try {
+            DateFormats.parse("08:30", DateTimeFormatter.ofPattern("HH:mm"));
+            Assert.fail("没有年份的格式应该解析失败");
+        } catch (DateTimeParseException e) {
+            Assert.assertEquals("08:30", e.getParsedString());
+        }
+    }
+
+    /**
+     * 毫秒和星期转换成Excel的写法，Excel没有的字母退回默认格式
+     */
+    @Test
+    public void toExcelFormat() {
+        Assert.assertEquals("yyyy-MM-dd HH:mm:ss.000", DateFormats.toExcelFormat("yyyy-MM-dd HH:mm:ss.SSS"));
+        Assert.assertEquals("yyyy-MM-dd ddd", DateFormats.toExcelFormat("yyyy-MM-dd EEE"));
+        Assert.assertEquals("yyyy-MM-dd dddd", DateFormats.toExcelFormat("yyyy-MM-dd EEEE"));
+        Assert.assertEquals("hh:mm AM/PM", DateFormats.toExcelFormat("hh:mm a"));
+        Assert.assertEquals("yyyy\"年\"MM\"月\"", DateFormats.toExcelFormat("yyyy'年'MM'月'"));
+        Assert.assertEquals(DateFormats.DEFAULT_DATE_PATTERN, DateFormats.toExcelFormat("yyyy-'W'ww"));
+        Assert.assertEquals(DateFormats.DEFAULT_DATE_TIME_PATTERN, DateFormats.toExcelFormat("yyyy-MM-dd HH:mm z"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.poi.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 保存在临时文件中的共享字符串表
+ */
+public class DiskSharedStringsTest {
+    /**
+     * 缓存只保留最近使用的字符串，淘汰的字符串再次使用时从数据文件读取
+     */
+    @Test
+    public void lruEviction() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            Sheet sheet = wb.createSheet();
+            for (int i = 0; i < 100; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("文本" + i);
+            }
+            wb.write(outputStream);
+        }
+        OPCPackage pkg = OPCPackage.open(new ByteArrayInputStream(outputStream.toByteArray()));
+        try (DiskSharedStrings strings = DiskSharedStrings.open(pkg, 16)) {
+            for (int i = 0; i < 100; i++) {
+                Assert.assertEquals("文本" + i, strings.get(i));
+            }
+            Assert.assertEquals(100, strings.getReadCount());
+            Assert.assertEquals(16, strings.getCachedCount());
+            //最近的16条命中缓存
+            Assert.assertEquals("文本99", strings.get(99));
+            Assert.assertEquals(100, strings.getReadCount());
+            //第0条已经被淘汰
+            Assert.assertEquals("文本0", strings.get(0));
+            Assert.assertEquals(101, strings.getReadCount());
+            Assert.assertEquals(16, strings.getCachedCount());
+        } finally {
+            pkg.revert();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.poi.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 映射计划的缓存和属性读写
+ */
+public class PojoMappingTest {
+    private static final List<String> PROPERTIES = Arrays.asList("count", "total", "name");
+
+    @Test
+    public void cachedPlanRoundTrip() {
+        PojoMapping<Item> mapping = PojoMapping.of(Item.class, PROPERTIES);
+        //不同的别名组合复用同一个读写器，日期格式不同时各自解析
+        Assert.assertSame(mapping.getAccessor("count"), PojoMapping.of(Item.class, Arrays.asList("total", "count")).getAccessor("count"));
+        Assert.assertNotSame(mapping.getAccessor("count"),
+                PojoMapping.of(Item.class, PROPERTIES, Collections.singletonMap("count", "yyyy")).getAccessor("count"));
+        Assert.assertNull(PojoMapping.of(Item.class, Arrays.asList("count", "missing")).getAccessor("missing"));
+
+        Item item = mapping.newInstance();
+        PropertyAccessor count = mapping.getAccessor("count");
+        PropertyAccessor total = mapping.getAccessor("total");
+        Assert.assertEquals(PropertyAccessor.ValueType.INTEGER, count.getValueType());
+        Assert.assertEquals(PropertyAccessor.ValueType.LONG, total.getValueType());
+        count.set(item, 7);
+        total.set(item, 9L);
+        mapping.getAccessor("name").set(item, "a");
+        Assert.assertEquals(7, item.getCount());
+        Assert.assertEquals(Long.valueOf(9), item.getTotal());
+        Assert.assertEquals(7, count.get(item));
+        Assert.assertEquals(9L, total.get(item));
+        Assert.assertEquals("a", mapping.getAccessor("name").get(item));
+    }
+
+    /**
+     * 子类加载器中的类看不到生成的lambda，改用MethodHandle读写
+     */
+    @Test
+    public void childClassLoader() throws Exception {
+        Class<?> clazz = new ChildFirstLoader(Item.class.getName(), getClass().getClassLoader()).loadClass(Item.class.getName());
+        Assert.assertNotSame(Item.class, clazz);
+        //Java 8上lambda类在PojoMapping的加载器中，调用时找不到子加载器中的类
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Assert.assertTrue(PropertyAccessor.canLinkLambda(lookup, Item.class));
+        Assert.assertTrue(PropertyAccessor.canLinkLambda(lookup, Long.class));
+        Assert.assertFalse(PropertyAccessor.canLinkLambda(lookup, clazz));
+        roundTrip(PojoMapping.of(clazz, PROPERTIES));
+    }
+
+    private static <T> void roundTrip(PojoMapping<T> mapping) {
+        T item = mapping.newInstance();
+        mapping.getAccessor("count").set(item, 3);
+        mapping.getAccessor("total").set(item, 4L);
+        mapping.getAccessor("name").set(item, "b");
+        Assert.assertEquals(3, mapping.getAccessor("count").get(item));
+        Assert.assertEquals(4L, mapping.getAccessor("total").get(item));
+        Assert.assertEquals("b", mapping.getAccessor("name").get(item));
+    }
+
+    public static class Item {
+        private int count;
+        private Long total;
+        private String name;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public Long getTotal() {
+            return total;
+        }
+
+        public void setTotal(Long total) {
+            this.total = total;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * 自己定义指定的类，其他类交给父加载器，模拟web应用和插件的类加载器
+     */
+    private static final class ChildFirstLoader extends ClassLoader {
+        private final String className;
+
+        ChildFirstLoader(String className, ClassLoader parent) {
+            super(parent);
+            this.className = className;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded != null) {
+                    return loaded;
+                }
+                try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[4096];
+                    int n;
+                    while ((n = in.read(buffer)) >= 0) {
+                        bytes.write(buffer, 0, n);
+                    }
+                    return defineClass(name, bytes.toByteArray(), 0, bytes.size());
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+            }
+        }
+    }
+}